@@ -1,6 +1,7 @@
 package com.nested.server.config;
 
 import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.AsyncConfigurer;
@@ -13,7 +14,8 @@ import lombok.extern.slf4j.Slf4j;
 
 /**
  * Async configuration for non-blocking operations like karma updates,
- * cache invalidation, and other background tasks.
+ * cache invalidation, and other background tasks, plus the dedicated password hashing
+ * and timeline fan-out pools.
  */
 @Slf4j
 @Configuration
@@ -45,6 +47,44 @@ public class AsyncConfig implements AsyncConfigurer {
         return executor;
     }
 
+    /**
+     * CPU-bound pool for BCrypt, sized to the cores rather than the Tomcat pool.
+     * The queue is short on purpose: when it is full callers are rejected (429) instead of
+     * letting a login burst tie up request threads waiting on hashes.
+     */
+    @Bean(name = "passwordHashExecutor")
+    public ThreadPoolTaskExecutor passwordHashExecutor(
+            @Value("${app.password.hash-threads:0}") int threads,
+            @Value("${app.password.hash-queue-capacity:64}") int queueCapacity) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("pwhash-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Long-running workers that apply home timeline fan-out. Each thread runs one drain loop,
+     * so there is no queue here - events are buffered by HomeTimelines itself.
+     */
+    @Bean(name = "timelineFanoutExecutor")
+    public ThreadPoolTaskExecutor timelineFanoutExecutor(
+            @Value("${app.feed.timelines.fanout-threads:2}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("fanout-");
+        executor.initialize();
+        return executor;
+    }
+
     @Override
     public AsyncUncaughtExceptionHandler getAsyncUncaughtExceptionHandler() {
         return (throwable, method, objects) -> log.error("Async exception in method: {} with message: {}",
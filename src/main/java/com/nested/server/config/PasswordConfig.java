@@ -1,15 +1,73 @@
 package com.nested.server.config;
 
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.util.Map;
+
+/**
+ * Password encoder with a BCrypt cost calibrated to this machine at startup.
+ * New hashes are stored with a {bcrypt} prefix; hashes from before the prefix
+ * was introduced are still matched and get upgraded on the next successful login.
+ */
+@Slf4j
 @Configuration
 public class PasswordConfig {
 
+    private static final String ENCODING_ID = "bcrypt";
+    private static final int MIN_COST = 4;
+    private static final int MAX_COST = 16;
+    private static final String BENCHMARK_PASSWORD = "calibration-password";
+
+    @Value("${app.password.target-hash-ms:150}")
+    private long targetHashMillis;
+
+    // Never go below the cost the application has always used
+    @Value("${app.password.min-cost:10}")
+    private int minCost;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        int cost = calibrateCost();
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(ENCODING_ID,
+                Map.of(ENCODING_ID, new BCryptPasswordEncoder(cost)));
+        // Legacy hashes carry no {id} prefix - they are plain BCrypt of any cost
+        encoder.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder());
+        return encoder;
+    }
+
+    /**
+     * Pick the highest cost whose hash time stays within the target.
+     * Each step doubles the work, so the whole benchmark costs about twice the target.
+     */
+    private int calibrateCost() {
+        int floor = Math.max(MIN_COST, Math.min(minCost, MAX_COST));
+        int chosen = floor;
+        for (int cost = MIN_COST; cost <= MAX_COST; cost++) {
+            long elapsed = timeHash(cost);
+            if (elapsed > targetHashMillis) {
+                log.info("BCrypt cost {} took {}ms (target {}ms)", cost, elapsed, targetHashMillis);
+                break;
+            }
+            chosen = Math.max(cost, floor);
+        }
+        log.info("Using BCrypt cost {} for new password hashes", chosen);
+        return chosen;
+    }
+
+    private static long timeHash(int cost) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(cost);
+        // Warm-up run so the first measurement is not dominated by class loading and JIT
+        if (cost == MIN_COST) {
+            encoder.encode(BENCHMARK_PASSWORD);
+        }
+        long start = System.nanoTime();
+        encoder.encode(BENCHMARK_PASSWORD);
+        return (System.nanoTime() - start) / 1_000_000;
     }
 }
@@ -0,0 +1,12 @@
+package com.nested.server.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables background jobs such as cache refreshes and score recomputation.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -2,17 +2,15 @@ package com.nested.server.controller;
 
 import com.nested.server.dto.CommentRequest;
 import com.nested.server.dto.CommentResponse;
+import com.nested.server.dto.CommentTree;
 import com.nested.server.model.User;
+import com.nested.server.security.CurrentUser;
 import com.nested.server.service.CommentService;
-import com.nested.server.service.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -21,16 +19,11 @@ import java.util.Map;
 public class CommentController {
 
     private final CommentService commentService;
-    private final UserService userService;
 
     @PostMapping
     public ResponseEntity<CommentResponse> createComment(
             @Valid @RequestBody CommentRequest request,
-            @AuthenticationPrincipal UserDetails userDetails) {
-
-        User user = userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+            @CurrentUser User user) {
         CommentResponse response = commentService.createComment(request, user);
         return ResponseEntity.ok(response);
     }
@@ -39,11 +32,7 @@ public class CommentController {
     public ResponseEntity<CommentResponse> updateComment(
             @PathVariable String id,
             @RequestBody Map<String, String> updates,
-            @AuthenticationPrincipal UserDetails userDetails) {
-
-        User user = userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+            @CurrentUser User user) {
         CommentResponse response = commentService.updateComment(id, updates.get("content"), user);
         return ResponseEntity.ok(response);
     }
@@ -51,24 +40,16 @@ public class CommentController {
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteComment(
             @PathVariable String id,
-            @AuthenticationPrincipal UserDetails userDetails) {
-
-        User user = userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+            @CurrentUser User user) {
         commentService.deleteComment(id, user);
         return ResponseEntity.ok().build();
     }
 
     @GetMapping("/post/{postId}")
-    public ResponseEntity<List<CommentResponse>> getCommentsByPost(
+    public ResponseEntity<CommentTree> getCommentsByPost(
             @PathVariable String postId,
-            @AuthenticationPrincipal UserDetails userDetails) {
-
-        User user = userDetails != null ?
-                userService.findByUsername(userDetails.getUsername()).orElse(null) : null;
-
-        List<CommentResponse> comments = commentService.getCommentsByPost(postId, user);
+            @CurrentUser(required = false) User user) {
+        CommentTree comments = commentService.getCommentsByPost(postId, user);
         return ResponseEntity.ok(comments);
     }
 }
@@ -1,6 +1,7 @@
 package com.nested.server.controller;
 
 import com.nested.server.model.User;
+import com.nested.server.security.CurrentUser;
 import com.nested.server.service.FileStorageService;
 import com.nested.server.service.UserService;
 import lombok.RequiredArgsConstructor;
@@ -10,8 +11,6 @@ import org.springframework.core.io.UrlResource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -32,11 +31,7 @@ public class ImageController {
     @PostMapping("/api/users/me/avatar")
     public ResponseEntity<Map<String, String>> uploadAvatar(
             @RequestParam("file") MultipartFile file,
-            @AuthenticationPrincipal UserDetails userDetails) {
-
-        User user = userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+            @CurrentUser User user) {
         // Delete old avatar if it's a local file
         String oldAvatarUrl = user.getAvatarUrl();
         if (oldAvatarUrl != null && oldAvatarUrl.startsWith("/uploads/")) {
@@ -57,11 +52,7 @@ public class ImageController {
 
     @DeleteMapping("/api/users/me/avatar")
     public ResponseEntity<Map<String, String>> deleteAvatar(
-            @AuthenticationPrincipal UserDetails userDetails) {
-
-        User user = userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+            @CurrentUser User user) {
         // Delete old avatar if it's a local file
         String oldAvatarUrl = user.getAvatarUrl();
         if (oldAvatarUrl != null && oldAvatarUrl.startsWith("/uploads/")) {
@@ -78,9 +69,9 @@ public class ImageController {
     public ResponseEntity<Map<String, String>> uploadPostImage(
             @RequestParam("file") MultipartFile file,
             @RequestParam(value = "postId", required = false) String postId,
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @CurrentUser(required = false) User user) {
 
-        if (userDetails == null) {
+        if (user == null) {
             return ResponseEntity.status(401).body(Map.of("error", "Not authenticated"));
         }
 
@@ -1,17 +1,14 @@
 package com.nested.server.controller;
 
 import com.nested.server.dto.*;
-import com.nested.server.exception.ResourceNotFoundException;
 import com.nested.server.model.Report;
 import com.nested.server.model.User;
+import com.nested.server.security.CurrentUser;
 import com.nested.server.service.ModerationService;
-import com.nested.server.service.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -24,16 +21,14 @@ import java.util.Map;
 public class ModerationController {
 
     private final ModerationService moderationService;
-    private final UserService userService;
 
     // ==================== REPORT ENDPOINTS ====================
 
     @PostMapping("/reports")
     public ResponseEntity<ReportResponse> createReport(
             @Valid @RequestBody ReportRequest request,
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @CurrentUser User user) {
 
-        User user = getUser(userDetails);
         ReportResponse response = moderationService.createReport(request, user);
         return ResponseEntity.ok(response);
     }
@@ -43,9 +38,8 @@ public class ModerationController {
             @PathVariable String subId,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @CurrentUser User user) {
 
-        User user = getUser(userDetails);
         List<ReportResponse> reports = moderationService.getModQueue(subId, user, page, size);
         return ResponseEntity.ok(reports);
     }
@@ -55,9 +49,8 @@ public class ModerationController {
             @PathVariable String subId,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @CurrentUser User user) {
 
-        User user = getUser(userDetails);
         List<ReportResponse> reports = moderationService.getAllReportsForSub(subId, user, page, size);
         return ResponseEntity.ok(reports);
     }
@@ -65,9 +58,8 @@ public class ModerationController {
     @GetMapping("/subs/{subId}/queue/count")
     public ResponseEntity<Map<String, Long>> getPendingReportCount(
             @PathVariable String subId,
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @CurrentUser User user) {
 
-        User user = getUser(userDetails);
         long count = moderationService.getPendingReportCount(subId, user);
         return ResponseEntity.ok(Map.of("count", count));
     }
@@ -76,9 +68,8 @@ public class ModerationController {
     public ResponseEntity<ReportResponse> resolveReport(
             @PathVariable String reportId,
             @RequestBody Map<String, String> body,
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @CurrentUser User user) {
 
-        User user = getUser(userDetails);
         String statusStr = body.getOrDefault("status", "RESOLVED");
         String modNote = body.get("modNote");
 
@@ -93,9 +84,8 @@ public class ModerationController {
     public ResponseEntity<BanResponse> banUser(
             @PathVariable String subId,
             @Valid @RequestBody BanRequest request,
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @CurrentUser User user) {
 
-        User user = getUser(userDetails);
         BanResponse response = moderationService.banUser(subId, request, user);
         return ResponseEntity.ok(response);
     }
@@ -104,9 +94,8 @@ public class ModerationController {
     public ResponseEntity<Map<String, String>> unbanUser(
             @PathVariable String subId,
             @PathVariable String userId,
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @CurrentUser User user) {
 
-        User user = getUser(userDetails);
         moderationService.unbanUser(subId, userId, user);
         return ResponseEntity.ok(Map.of("message", "User unbanned successfully"));
     }
@@ -116,9 +105,8 @@ public class ModerationController {
             @PathVariable String subId,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @CurrentUser User user) {
 
-        User user = getUser(userDetails);
         List<BanResponse> bans = moderationService.getBannedUsers(subId, user, page, size);
         return ResponseEntity.ok(bans);
     }
@@ -129,9 +117,8 @@ public class ModerationController {
     public ResponseEntity<Map<String, String>> removePost(
             @PathVariable String postId,
             @RequestBody Map<String, String> body,
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @CurrentUser User user) {
 
-        User user = getUser(userDetails);
         String reason = body.get("reason");
         moderationService.removePost(postId, reason, user);
         return ResponseEntity.ok(Map.of("message", "Post removed successfully"));
@@ -140,9 +127,8 @@ public class ModerationController {
     @PostMapping("/posts/{postId}/approve")
     public ResponseEntity<Map<String, String>> approvePost(
             @PathVariable String postId,
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @CurrentUser User user) {
 
-        User user = getUser(userDetails);
         moderationService.approvePost(postId, user);
         return ResponseEntity.ok(Map.of("message", "Post approved successfully"));
     }
@@ -151,9 +137,8 @@ public class ModerationController {
     public ResponseEntity<Map<String, String>> removeComment(
             @PathVariable String commentId,
             @RequestBody Map<String, String> body,
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @CurrentUser User user) {
 
-        User user = getUser(userDetails);
         String reason = body.get("reason");
         moderationService.removeComment(commentId, reason, user);
         return ResponseEntity.ok(Map.of("message", "Comment removed successfully"));
@@ -162,9 +147,8 @@ public class ModerationController {
     @PostMapping("/comments/{commentId}/approve")
     public ResponseEntity<Map<String, String>> approveComment(
             @PathVariable String commentId,
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @CurrentUser User user) {
 
-        User user = getUser(userDetails);
         moderationService.approveComment(commentId, user);
         return ResponseEntity.ok(Map.of("message", "Comment approved successfully"));
     }
@@ -174,9 +158,8 @@ public class ModerationController {
     @PostMapping("/posts/{postId}/pin")
     public ResponseEntity<Map<String, String>> pinPost(
             @PathVariable String postId,
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @CurrentUser User user) {
 
-        User user = getUser(userDetails);
         moderationService.pinPost(postId, user);
         return ResponseEntity.ok(Map.of("message", "Post pinned successfully"));
     }
@@ -184,9 +167,8 @@ public class ModerationController {
     @DeleteMapping("/posts/{postId}/pin")
     public ResponseEntity<Map<String, String>> unpinPost(
             @PathVariable String postId,
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @CurrentUser User user) {
 
-        User user = getUser(userDetails);
         moderationService.unpinPost(postId, user);
         return ResponseEntity.ok(Map.of("message", "Post unpinned successfully"));
     }
@@ -196,9 +178,8 @@ public class ModerationController {
     @PostMapping("/posts/{postId}/lock")
     public ResponseEntity<Map<String, String>> lockPost(
             @PathVariable String postId,
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @CurrentUser User user) {
 
-        User user = getUser(userDetails);
         moderationService.lockPost(postId, user);
         return ResponseEntity.ok(Map.of("message", "Post locked successfully"));
     }
@@ -206,17 +187,9 @@ public class ModerationController {
     @DeleteMapping("/posts/{postId}/lock")
     public ResponseEntity<Map<String, String>> unlockPost(
             @PathVariable String postId,
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @CurrentUser User user) {
 
-        User user = getUser(userDetails);
         moderationService.unlockPost(postId, user);
         return ResponseEntity.ok(Map.of("message", "Post unlocked successfully"));
     }
-
-    // ==================== HELPER METHODS ====================
-
-    private User getUser(UserDetails userDetails) {
-        return userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new ResourceNotFoundException("User", "username", userDetails.getUsername()));
-    }
 }
@@ -1,18 +1,20 @@
 package com.nested.server.controller;
 
+import com.nested.server.dto.FeedPage;
+import com.nested.server.dto.PostFeed;
 import com.nested.server.dto.PostRequest;
 import com.nested.server.dto.PostResponse;
+import com.nested.server.dto.RankedFeedPage;
 import com.nested.server.model.User;
+import com.nested.server.security.CurrentUser;
 import com.nested.server.service.PostService;
+import com.nested.server.service.SavedPostService;
 import com.nested.server.service.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -20,17 +22,16 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class PostController {
 
+    private static final String FEED_TOKEN_HEADER = "X-Feed-Token";
+
     private final PostService postService;
     private final UserService userService;
+    private final SavedPostService savedPostService;
 
     @PostMapping
     public ResponseEntity<PostResponse> createPost(
             @Valid @RequestBody PostRequest request,
-            @AuthenticationPrincipal UserDetails userDetails) {
-
-        User user = userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+            @CurrentUser User user) {
         PostResponse response = postService.createPost(request, user);
         return ResponseEntity.ok(response);
     }
@@ -39,11 +40,7 @@ public class PostController {
     public ResponseEntity<PostResponse> updatePost(
             @PathVariable String id,
             @RequestBody Map<String, String> updates,
-            @AuthenticationPrincipal UserDetails userDetails) {
-
-        User user = userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+            @CurrentUser User user) {
         PostResponse response = postService.updatePost(id, updates, user);
         return ResponseEntity.ok(response);
     }
@@ -51,140 +48,176 @@ public class PostController {
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deletePost(
             @PathVariable String id,
-            @AuthenticationPrincipal UserDetails userDetails) {
-
-        User user = userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+            @CurrentUser User user) {
         postService.deletePost(id, user);
         return ResponseEntity.ok().build();
     }
 
+    /**
+     * Page-based home feed. The X-Feed-Token response header identifies the ranking the page was
+     * cut from; send it back (header or feedToken param) with later pages to keep the order stable.
+     */
     @GetMapping
-    public ResponseEntity<List<PostResponse>> getPosts(
+    public ResponseEntity<PostFeed> getPosts(
             @RequestParam(defaultValue = "hot") String sort,
+            @RequestParam(required = false) String t,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "25") int size,
-            @AuthenticationPrincipal UserDetails userDetails) {
-
-        User user = userDetails != null ?
-                userService.findByUsername(userDetails.getUsername()).orElse(null) : null;
+            @RequestParam(required = false) String feedToken,
+            @RequestHeader(value = FEED_TOKEN_HEADER, required = false) String feedTokenHeader,
+            @CurrentUser(required = false) User user) {
+        RankedFeedPage result = postService.getHomeFeed(user, sort, t, page, size,
+                feedToken != null ? feedToken : feedTokenHeader);
+        return withFeedToken(result);
+    }
 
-        List<PostResponse> posts = postService.getHomeFeed(user, sort, page, size);
-        return ResponseEntity.ok(posts);
+    /**
+     * Cursor-paginated home feed - pass nextCursor back as "after" to continue
+     */
+    @GetMapping("/feed")
+    public ResponseEntity<FeedPage> getFeed(
+            @RequestParam(defaultValue = "hot") String sort,
+            @RequestParam(required = false) String t,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "25") int size,
+            @CurrentUser(required = false) User user) {
+        return ResponseEntity.ok(postService.getHomeFeedPage(user, sort, t, after, size));
     }
 
     @GetMapping("/hot")
-    public ResponseEntity<List<PostResponse>> getHotPosts(@AuthenticationPrincipal UserDetails userDetails) {
-        User user = userDetails != null ?
-                userService.findByUsername(userDetails.getUsername()).orElse(null) : null;
+    public ResponseEntity<PostFeed> getHotPosts(@CurrentUser(required = false) User user) {
         return ResponseEntity.ok(postService.getHotPosts(user));
     }
 
     @GetMapping("/new")
-    public ResponseEntity<List<PostResponse>> getNewPosts(@AuthenticationPrincipal UserDetails userDetails) {
-        User user = userDetails != null ?
-                userService.findByUsername(userDetails.getUsername()).orElse(null) : null;
+    public ResponseEntity<PostFeed> getNewPosts(@CurrentUser(required = false) User user) {
         return ResponseEntity.ok(postService.getNewPosts(user));
     }
 
+    /**
+     * Site-wide top posts; t is hour, day, week, month, year or all (default)
+     */
     @GetMapping("/top")
-    public ResponseEntity<List<PostResponse>> getTopPosts(@AuthenticationPrincipal UserDetails userDetails) {
-        User user = userDetails != null ?
-                userService.findByUsername(userDetails.getUsername()).orElse(null) : null;
-        return ResponseEntity.ok(postService.getPopularPosts(user));
+    public ResponseEntity<PostFeed> getTopPosts(
+            @RequestParam(required = false) String t,
+            @CurrentUser(required = false) User user) {
+        return ResponseEntity.ok(postService.getPopularPosts(user, t));
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<PostResponse> getPost(
             @PathVariable String id,
-            @AuthenticationPrincipal UserDetails userDetails) {
-
-        User user = userDetails != null ?
-                userService.findByUsername(userDetails.getUsername()).orElse(null) : null;
-
+            @CurrentUser(required = false) User user) {
         return postService.findById(id)
                 .map(post -> ResponseEntity.ok(postService.mapToResponseWithUserData(post, user)))
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/subs/{subName}")
-    public ResponseEntity<List<PostResponse>> getPostsBySub(
+    public ResponseEntity<PostFeed> getPostsBySub(
             @PathVariable String subName,
             @RequestParam(defaultValue = "hot") String sort,
+            @RequestParam(required = false) String t,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "25") int size,
-            @AuthenticationPrincipal UserDetails userDetails) {
-
-        User user = userDetails != null ?
-                userService.findByUsername(userDetails.getUsername()).orElse(null) : null;
+            @RequestParam(required = false) String feedToken,
+            @RequestHeader(value = FEED_TOKEN_HEADER, required = false) String feedTokenHeader,
+            @CurrentUser(required = false) User user) {
+        RankedFeedPage result = postService.getPostsBySubs(subName, sort, t, page, size, user,
+                feedToken != null ? feedToken : feedTokenHeader);
+        return withFeedToken(result);
+    }
 
-        List<PostResponse> posts = postService.getPostsBySubs(subName, sort, page, size, user);
-        return ResponseEntity.ok(posts);
+    @GetMapping("/subs/{subName}/feed")
+    public ResponseEntity<FeedPage> getSubFeed(
+            @PathVariable String subName,
+            @RequestParam(defaultValue = "hot") String sort,
+            @RequestParam(required = false) String t,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "25") int size,
+            @CurrentUser(required = false) User user) {
+        return ResponseEntity.ok(postService.getSubFeedPage(subName, sort, t, after, size, user));
     }
 
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<PostResponse>> getPostsByUser(
+    public ResponseEntity<PostFeed> getPostsByUser(
             @PathVariable String userId,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "25") int size,
-            @AuthenticationPrincipal UserDetails userDetails) {
-
-        User currentUser = userDetails != null ?
-                userService.findByUsername(userDetails.getUsername()).orElse(null) : null;
-
-        List<PostResponse> posts = postService.getPostsByUser(userId, page, size, currentUser);
+            @CurrentUser(required = false) User currentUser) {
+        PostFeed posts = postService.getPostsByUser(userId, page, size, currentUser);
         return ResponseEntity.ok(posts);
     }
 
+    @GetMapping("/user/{userId}/feed")
+    public ResponseEntity<FeedPage> getUserFeed(
+            @PathVariable String userId,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "25") int size,
+            @CurrentUser(required = false) User currentUser) {
+        return ResponseEntity.ok(postService.getUserFeedPage(userId, after, size, currentUser));
+    }
+
     @GetMapping("/search")
-    public ResponseEntity<List<PostResponse>> searchPosts(
+    public ResponseEntity<PostFeed> searchPosts(
             @RequestParam String q,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "25") int size,
-            @AuthenticationPrincipal UserDetails userDetails) {
-
-        User user = userDetails != null ?
-                userService.findByUsername(userDetails.getUsername()).orElse(null) : null;
-
-        List<PostResponse> posts = postService.searchPosts(q, page, size, user);
+            @CurrentUser(required = false) User user) {
+        PostFeed posts = postService.searchPosts(q, page, size, user);
         return ResponseEntity.ok(posts);
     }
 
+    @GetMapping("/search/feed")
+    public ResponseEntity<FeedPage> searchFeed(
+            @RequestParam String q,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "25") int size,
+            @CurrentUser(required = false) User user) {
+        return ResponseEntity.ok(postService.searchFeedPage(q, after, size, user));
+    }
+
     @PostMapping("/{id}/save")
     public ResponseEntity<Map<String, Boolean>> savePost(
             @PathVariable String id,
-            @AuthenticationPrincipal UserDetails userDetails) {
-
-        User user = userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        boolean saved = userService.toggleSavePost(user.getId(), id);
+            @CurrentUser User user) {
+        boolean saved = savedPostService.toggle(user.getId(), id);
         return ResponseEntity.ok(Map.of("saved", saved));
     }
 
     @PostMapping("/{id}/hide")
     public ResponseEntity<Map<String, Boolean>> hidePost(
             @PathVariable String id,
-            @AuthenticationPrincipal UserDetails userDetails) {
-
-        User user = userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+            @CurrentUser User user) {
         boolean hidden = userService.toggleHidePost(user.getId(), id);
         return ResponseEntity.ok(Map.of("hidden", hidden));
     }
 
     @GetMapping("/saved")
-    public ResponseEntity<List<PostResponse>> getSavedPosts(
+    public ResponseEntity<PostFeed> getSavedPosts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "25") int size,
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @CurrentUser User user) {
+        PostFeed posts = postService.getSavedPosts(user, page, size);
+        return ResponseEntity.ok(posts);
+    }
 
-        User user = userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    /**
+     * Cursor-paginated saved posts, newest saved first
+     */
+    @GetMapping("/saved/feed")
+    public ResponseEntity<FeedPage> getSavedFeed(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "25") int size,
+            @CurrentUser User user) {
+        return ResponseEntity.ok(postService.getSavedFeedPage(user, after, size));
+    }
 
-        List<PostResponse> posts = postService.getSavedPosts(user, page, size);
-        return ResponseEntity.ok(posts);
+    private ResponseEntity<PostFeed> withFeedToken(RankedFeedPage result) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (result.getFeedToken() != null) {
+            response.header(FEED_TOKEN_HEADER, result.getFeedToken());
+        }
+        return response.body(result.getPosts());
     }
 }
@@ -2,20 +2,17 @@ package com.nested.server.controller;
 
 import com.nested.server.dto.UserFlairRequest;
 import com.nested.server.dto.UserFlairResponse;
-import com.nested.server.exception.ResourceNotFoundException;
 import com.nested.server.model.Subs;
 import com.nested.server.dto.SubRequest;
 import com.nested.server.dto.SubResponse;
 import com.nested.server.model.User;
+import com.nested.server.security.CurrentUser;
 import com.nested.server.service.SubService;
 import com.nested.server.service.UserFlairService;
-import com.nested.server.service.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -28,32 +25,24 @@ import java.util.Map;
 public class SubController {
 
     private final SubService subService;
-    private final UserService userService;
     private final UserFlairService userFlairService;
 
     @PostMapping
     public ResponseEntity<SubResponse> createSubs(
             @Valid @RequestBody SubRequest request,
-            @AuthenticationPrincipal UserDetails userDetails) {
-
-        User user = userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new ResourceNotFoundException("User", "username", userDetails.getUsername()));
-
+            @CurrentUser User user) {
         SubResponse response = subService.createSubs(request, user);
         return ResponseEntity.ok(response);
     }
 
     @GetMapping
     public ResponseEntity<List<SubResponse>> getPopularSubs(
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @CurrentUser(required = false) User user) {
 
         log.info("GET /api/subs - Fetching popular communities, user: {}",
-                userDetails != null ? userDetails.getUsername() : "anonymous");
+                user != null ? user.getUsername() : "anonymous");
 
         try {
-            User user = userDetails != null ?
-                    userService.findByUsername(userDetails.getUsername()).orElse(null) : null;
-
             List<SubResponse> result = subService.getPopularSubs(user);
             log.info("GET /api/subs - Returning {} communities", result.size());
             return ResponseEntity.ok(result);
@@ -66,26 +55,19 @@ public class SubController {
     @GetMapping("/search")
     public ResponseEntity<List<SubResponse>> searchSubs(
             @RequestParam String q,
-            @AuthenticationPrincipal UserDetails userDetails) {
-
-        User user = userDetails != null ?
-                userService.findByUsername(userDetails.getUsername()).orElse(null) : null;
-
+            @CurrentUser(required = false) User user) {
         return ResponseEntity.ok(subService.searchSubs(q, user));
     }
 
     @GetMapping("/{name}")
     public ResponseEntity<SubResponse> getSubs(
             @PathVariable String name,
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @CurrentUser(required = false) User user) {
 
         log.info("GET /api/subs/{} - user: {}", name,
-                userDetails != null ? userDetails.getUsername() : "anonymous");
+                user != null ? user.getUsername() : "anonymous");
 
         try {
-            User user = userDetails != null ?
-                    userService.findByUsername(userDetails.getUsername()).orElse(null) : null;
-
             return subService.findByName(name)
                     .map(sub -> {
                         log.info("GET /api/subs/{} - Found community with {} subscribers",
@@ -105,32 +87,20 @@ public class SubController {
 
     @GetMapping("/subscriptions")
     public ResponseEntity<List<SubResponse>> getSubscriptions(
-            @AuthenticationPrincipal UserDetails userDetails) {
-
-        User user = userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new ResourceNotFoundException("User", "username", userDetails.getUsername()));
-
+            @CurrentUser User user) {
         return ResponseEntity.ok(subService.getUserSubscriptions(user));
     }
 
     @GetMapping("/browse")
     public ResponseEntity<List<SubResponse>> getBrowsableCommunities(
-            @AuthenticationPrincipal UserDetails userDetails) {
-
-        User user = userDetails != null ?
-                userService.findByUsername(userDetails.getUsername()).orElse(null) : null;
-
+            @CurrentUser(required = false) User user) {
         return ResponseEntity.ok(subService.getBrowsableCommunities(user));
     }
 
     @PostMapping("/{id}/subscribe")
     public ResponseEntity<Void> subscribe(
             @PathVariable String id,
-            @AuthenticationPrincipal UserDetails userDetails) {
-
-        User user = userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new ResourceNotFoundException("User", "username", userDetails.getUsername()));
-
+            @CurrentUser User user) {
         subService.subscribe(id, user);
         return ResponseEntity.noContent().build();
     }
@@ -138,11 +108,7 @@ public class SubController {
     @PostMapping("/{id}/unsubscribe")
     public ResponseEntity<Void> unsubscribe(
             @PathVariable String id,
-            @AuthenticationPrincipal UserDetails userDetails) {
-
-        User user = userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new ResourceNotFoundException("User", "username", userDetails.getUsername()));
-
+            @CurrentUser User user) {
         subService.unsubscribe(id, user);
         return ResponseEntity.noContent().build();
     }
@@ -151,11 +117,7 @@ public class SubController {
     public ResponseEntity<SubResponse> updateSubs(
             @PathVariable String id,
             @RequestBody SubRequest request,
-            @AuthenticationPrincipal UserDetails userDetails) {
-
-        User user = userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new ResourceNotFoundException("User", "username", userDetails.getUsername()));
-
+            @CurrentUser User user) {
         subService.updateSubs(id, request, user);
         return subService.findById(id)
                 .map(sub -> ResponseEntity.ok(subService.mapToResponse(sub,
@@ -167,11 +129,7 @@ public class SubController {
     public ResponseEntity<Map<String, String>> updateRules(
             @PathVariable String id,
             @RequestBody List<String> rules,
-            @AuthenticationPrincipal UserDetails userDetails) {
-
-        User user = userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new ResourceNotFoundException("User", "username", userDetails.getUsername()));
-
+            @CurrentUser User user) {
         subService.updateRules(id, rules, user);
         return ResponseEntity.ok(Map.of("message", "Rules updated successfully"));
     }
@@ -180,11 +138,7 @@ public class SubController {
     public ResponseEntity<Map<String, String>> addFlair(
             @PathVariable String id,
             @RequestBody Subs.Flair flair,
-            @AuthenticationPrincipal UserDetails userDetails) {
-
-        User user = userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new ResourceNotFoundException("User", "username", userDetails.getUsername()));
-
+            @CurrentUser User user) {
         subService.addFlair(id, flair, user);
         return ResponseEntity.ok(Map.of("message", "Flair added successfully"));
     }
@@ -193,11 +147,7 @@ public class SubController {
     public ResponseEntity<Map<String, String>> removeFlair(
             @PathVariable String id,
             @PathVariable String flairName,
-            @AuthenticationPrincipal UserDetails userDetails) {
-
-        User user = userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new ResourceNotFoundException("User", "username", userDetails.getUsername()));
-
+            @CurrentUser User user) {
         subService.removeFlair(id, flairName, user);
         return ResponseEntity.ok(Map.of("message", "Flair removed successfully"));
     }
@@ -206,11 +156,7 @@ public class SubController {
     public ResponseEntity<Map<String, String>> addModerator(
             @PathVariable String id,
             @RequestBody Map<String, String> request,
-            @AuthenticationPrincipal UserDetails userDetails) {
-
-        User user = userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new ResourceNotFoundException("User", "username", userDetails.getUsername()));
-
+            @CurrentUser User user) {
         String newModeratorId = request.get("userId");
         subService.addModerator(id, newModeratorId, user);
         return ResponseEntity.ok(Map.of("message", "Moderator added successfully"));
@@ -220,11 +166,7 @@ public class SubController {
     public ResponseEntity<Map<String, String>> removeModerator(
             @PathVariable String id,
             @PathVariable String moderatorId,
-            @AuthenticationPrincipal UserDetails userDetails) {
-
-        User user = userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new ResourceNotFoundException("User", "username", userDetails.getUsername()));
-
+            @CurrentUser User user) {
         subService.removeModerator(id, moderatorId, user);
         return ResponseEntity.ok(Map.of("message", "Moderator removed successfully"));
     }
@@ -269,11 +211,7 @@ public class SubController {
     public ResponseEntity<UserFlairResponse> setOwnFlair(
             @PathVariable String id,
             @Valid @RequestBody UserFlairRequest request,
-            @AuthenticationPrincipal UserDetails userDetails) {
-
-        User user = userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new ResourceNotFoundException("User", "username", userDetails.getUsername()));
-
+            @CurrentUser User user) {
         UserFlairResponse response = userFlairService.setOwnFlair(id, request, user);
         return ResponseEntity.ok(response);
     }
@@ -283,11 +221,7 @@ public class SubController {
             @PathVariable String id,
             @PathVariable String userId,
             @Valid @RequestBody UserFlairRequest request,
-            @AuthenticationPrincipal UserDetails userDetails) {
-
-        User user = userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new ResourceNotFoundException("User", "username", userDetails.getUsername()));
-
+            @CurrentUser User user) {
         UserFlairResponse response = userFlairService.setUserFlair(id, userId, request, user);
         return ResponseEntity.ok(response);
     }
@@ -296,11 +230,7 @@ public class SubController {
     public ResponseEntity<Map<String, String>> removeUserFlair(
             @PathVariable String id,
             @PathVariable String userId,
-            @AuthenticationPrincipal UserDetails userDetails) {
-
-        User user = userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new ResourceNotFoundException("User", "username", userDetails.getUsername()));
-
+            @CurrentUser User user) {
         userFlairService.removeUserFlair(id, userId, user);
         return ResponseEntity.ok(Map.of("message", "User flair removed successfully"));
     }
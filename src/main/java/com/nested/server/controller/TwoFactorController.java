@@ -7,6 +7,7 @@ import com.nested.server.exception.BadRequestException;
 import com.nested.server.model.User;
 import com.nested.server.repository.UserRepository;
 import com.nested.server.service.TwoFactorService;
+import com.nested.server.service.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -23,6 +24,7 @@ public class TwoFactorController {
 
     private final TwoFactorService twoFactorService;
     private final UserRepository userRepository;
+    private final UserService userService;
 
     /**
      * Get current 2FA status for the authenticated user
@@ -82,7 +84,7 @@ public class TwoFactorController {
         }
 
         // Verify the code with the provided secret
-        if (!twoFactorService.verifyCode(verifyRequest.getSecret(), verifyRequest.getCode())) {
+        if (!twoFactorService.verifyCode(user.getId(), verifyRequest.getSecret(), verifyRequest.getCode())) {
             throw new BadRequestException("Invalid verification code. Please try again.");
         }
 
@@ -90,6 +92,7 @@ public class TwoFactorController {
         user.setTwoFactorEnabled(true);
         user.setTwoFactorSecret(verifyRequest.getSecret());
         userRepository.save(user);
+        userService.evictCachedUser(user.getId());
 
         log.info("2FA enabled for user: {}", user.getUsername());
 
@@ -115,7 +118,7 @@ public class TwoFactorController {
         }
 
         // Verify the code before disabling
-        if (!twoFactorService.verifyCode(user.getTwoFactorSecret(), verifyRequest.getCode())) {
+        if (!twoFactorService.verifyCode(user.getId(), user.getTwoFactorSecret(), verifyRequest.getCode())) {
             throw new BadRequestException("Invalid verification code");
         }
 
@@ -123,6 +126,7 @@ public class TwoFactorController {
         user.setTwoFactorEnabled(false);
         user.setTwoFactorSecret(null);
         userRepository.save(user);
+        userService.evictCachedUser(user.getId());
 
         log.info("2FA disabled for user: {}", user.getUsername());
 
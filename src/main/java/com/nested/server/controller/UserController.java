@@ -2,12 +2,14 @@ package com.nested.server.controller;
 
 import com.nested.server.dto.SubResponse;
 import com.nested.server.model.User;
+import com.nested.server.security.AuthCookies;
+import com.nested.server.security.CurrentUser;
+import com.nested.server.security.JwtUtil;
 import com.nested.server.service.SubService;
 import com.nested.server.service.UserService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -20,16 +22,15 @@ public class UserController {
 
     private final UserService userService;
     private final SubService subService;
+    private final JwtUtil jwtUtil;
+    private final AuthCookies authCookies;
 
     @GetMapping("/me")
-    public ResponseEntity<Map<String, Object>> getCurrentUser(@AuthenticationPrincipal UserDetails userDetails) {
-        if (userDetails == null) {
+    public ResponseEntity<Map<String, Object>> getCurrentUser(@CurrentUser(required = false) User user) {
+        if (user == null) {
             return ResponseEntity.ok(Map.of("authenticated", false));
         }
 
-        User user = userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
         return ResponseEntity.ok(Map.ofEntries(
                 Map.entry("authenticated", true),
                 Map.entry("id", user.getId()),
@@ -39,7 +40,6 @@ public class UserController {
                 Map.entry("avatarUrl", user.getAvatarUrl() != null ? user.getAvatarUrl() : ""),
                 Map.entry("karma", user.getKarma()),
                 Map.entry("createdAt", user.getCreatedAt().toString()),
-                Map.entry("savedPosts", user.getSavedPosts() != null ? user.getSavedPosts() : java.util.Set.of()),
                 Map.entry("hiddenPosts", user.getHiddenPosts() != null ? user.getHiddenPosts() : java.util.Set.of()),
                 Map.entry("twoFactorEnabled", user.isTwoFactorEnabled())
         ));
@@ -62,11 +62,7 @@ public class UserController {
     @PutMapping("/me")
     public ResponseEntity<Map<String, Object>> updateProfile(
             @RequestBody Map<String, String> updates,
-            @AuthenticationPrincipal UserDetails userDetails) {
-
-        User user = userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+            @CurrentUser User user) {
         User updatedUser = userService.updateProfile(user.getId(), updates);
 
         return ResponseEntity.ok(Map.of(
@@ -83,19 +79,31 @@ public class UserController {
     @PostMapping("/me/change-password")
     public ResponseEntity<Map<String, String>> changePassword(
             @RequestBody Map<String, String> passwords,
-            @AuthenticationPrincipal UserDetails userDetails) {
-
-        User user = userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+            @CurrentUser User user,
+            HttpServletResponse response) {
         String currentPassword = passwords.get("currentPassword");
         String newPassword = passwords.get("newPassword");
 
-        userService.changePassword(user.getId(), currentPassword, newPassword);
+        User updatedUser = userService.changePassword(user.getId(), currentPassword, newPassword);
+
+        // Other sessions are invalidated - keep this one signed in with a fresh token
+        authCookies.setToken(response, jwtUtil.generateToken(updatedUser));
 
         return ResponseEntity.ok(Map.of("message", "Password changed successfully"));
     }
 
+    /**
+     * Deactivate the caller's account - every session of it, on every node, ends immediately
+     */
+    @PostMapping("/me/deactivate")
+    public ResponseEntity<Map<String, String>> deactivateAccount(
+            @CurrentUser User user,
+            HttpServletResponse response) {
+        userService.disableAccount(user.getId());
+        authCookies.clearToken(response);
+        return ResponseEntity.ok(Map.of("message", "Account deactivated"));
+    }
+
     @PostMapping("/forgot-password")
     public ResponseEntity<Map<String, String>> forgotPassword(@RequestBody Map<String, String> request) {
         String email = request.get("email");
@@ -3,13 +3,11 @@ package com.nested.server.controller;
 import com.nested.server.dto.VoteRequest;
 import com.nested.server.dto.VoteResult;
 import com.nested.server.model.User;
-import com.nested.server.service.UserService;
+import com.nested.server.security.CurrentUser;
 import com.nested.server.service.VoteService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -18,16 +16,11 @@ import org.springframework.web.bind.annotation.*;
 public class VoteController {
 
     private final VoteService voteService;
-    private final UserService userService;
 
     @PostMapping
     public ResponseEntity<VoteResult> vote(
             @Valid @RequestBody VoteRequest request,
-            @AuthenticationPrincipal UserDetails userDetails) {
-
-        User user = userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+            @CurrentUser User user) {
         VoteResult result = voteService.vote(request, user);
         return ResponseEntity.ok(result);
     }
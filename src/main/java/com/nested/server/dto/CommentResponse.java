@@ -22,6 +22,7 @@ public class CommentResponse {
     private int voteCount;
     private int depth;
     private String createdAt;
+    private long createdAtEpochMs;
     private String timeAgo;
     private boolean deleted;
     private Integer userVote;
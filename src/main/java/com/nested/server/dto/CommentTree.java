@@ -0,0 +1,67 @@
+package com.nested.server.dto;
+
+import com.nested.server.model.Comment;
+import com.nested.server.service.TimeFormat;
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.SerializationContext;
+import tools.jackson.databind.ValueSerializer;
+import tools.jackson.databind.annotation.JsonSerialize;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Root comments of a post with their reply trees, serialized depth-first straight from the
+ * entities in the same shape as a list of CommentResponse. Children lists must already be
+ * in display order.
+ */
+@JsonSerialize(using = CommentTree.Serializer.class)
+public record CommentTree(List<Comment> roots, Map<String, List<Comment>> children, Map<String, Integer> userVotes) {
+
+    public static final CommentTree EMPTY = new CommentTree(List.of(), Map.of(), Map.of());
+
+    public static final class Serializer extends ValueSerializer<CommentTree> {
+
+        private static final AllocationSampler ALLOCATIONS = new AllocationSampler("comment");
+
+        @Override
+        public void serialize(CommentTree tree, JsonGenerator gen, SerializationContext ctxt) throws JacksonException {
+            long sample = ALLOCATIONS.start();
+            long now = System.currentTimeMillis();
+            int[] written = new int[1];
+            writeComments(gen, tree, tree.roots(), now, written);
+            ALLOCATIONS.stop(sample, written[0]);
+        }
+
+        private static void writeComments(JsonGenerator gen, CommentTree tree, List<Comment> comments, long now, int[] written) {
+            gen.writeStartArray();
+            for (Comment comment : comments) {
+                written[0]++;
+                gen.writeStartObject();
+                gen.writeStringProperty("id", comment.getId());
+                gen.writeStringProperty("content", comment.isDeleted() ? "[deleted]" : comment.getContent());
+                gen.writeStringProperty("authorId", comment.getAuthorId());
+                gen.writeStringProperty("authorUsername", comment.isDeleted() ? "[deleted]" : comment.getAuthorName());
+                gen.writeStringProperty("postId", comment.getPostId());
+                gen.writeStringProperty("parentCommentId", comment.getParentCommentId());
+                gen.writeNumberProperty("voteCount", comment.getVoteCount());
+                gen.writeNumberProperty("depth", comment.getDepth());
+                gen.writeStringProperty("createdAt", TimeFormat.dateTime(comment.getCreatedAt()));
+                gen.writeNumberProperty("createdAtEpochMs", comment.getCreatedAt().toEpochMilli());
+                gen.writeStringProperty("timeAgo", TimeFormat.timeAgo(comment.getCreatedAt(), now));
+                gen.writeBooleanProperty("deleted", comment.isDeleted());
+                Integer userVote = tree.userVotes().get(comment.getId());
+                if (userVote != null) {
+                    gen.writeNumberProperty("userVote", userVote.intValue());
+                } else {
+                    gen.writeNullProperty("userVote");
+                }
+                gen.writeName("replies");
+                writeComments(gen, tree, tree.children().getOrDefault(comment.getId(), List.of()), now, written);
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.nested.server.dto;
+
+import com.nested.server.exception.BadRequestException;
+import com.nested.server.model.FeedSort;
+import com.nested.server.model.Post;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque "after" cursor for keyset pagination: the sort key and id of the last post returned.
+ * Encoded as base64url of "sort.keyBits.id" so the key round-trips exactly.
+ */
+public record FeedCursor(FeedSort sort, double key, String id) {
+
+    public static FeedCursor after(Post post, FeedSort sort) {
+        return new FeedCursor(sort, sort.keyOf(post), post.getId());
+    }
+
+    public String encode() {
+        String raw = sort.name() + "." + Long.toHexString(Double.doubleToLongBits(key)) + "." + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a cursor issued for the given sort; null or blank means "first page"
+     *
+     * @throws BadRequestException if the cursor is malformed or was issued for another sort
+     */
+    public static FeedCursor decode(String cursor, FeedSort expectedSort) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\.", 3);
+            FeedSort sort = FeedSort.valueOf(parts[0]);
+            if (sort != expectedSort || parts[2].isEmpty()) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            double key = Double.longBitsToDouble(Long.parseUnsignedLong(parts[1], 16));
+            return new FeedCursor(sort, key, parts[2]);
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
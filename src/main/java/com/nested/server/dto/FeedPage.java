@@ -0,0 +1,19 @@
+package com.nested.server.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One page of a cursor-paginated post feed - pass nextCursor back as "after" for the next page
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FeedPage {
+    private PostFeed items;
+    private String nextCursor;
+    private boolean hasMore;
+}
@@ -0,0 +1,100 @@
+package com.nested.server.dto;
+
+import com.nested.server.model.Post;
+import com.nested.server.service.TimeFormat;
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.SerializationContext;
+import tools.jackson.databind.ValueSerializer;
+import tools.jackson.databind.annotation.JsonSerialize;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A list of posts as returned by feed endpoints. Serialized straight from the (list-projected)
+ * entities onto the response stream, without building a response object per post.
+ * Each item has the fields of PostResponse except content, plus the stored preview and
+ * createdAtEpochMs; imageUrls holds at most the first image.
+ */
+@JsonSerialize(using = PostFeed.Serializer.class)
+public record PostFeed(List<Post> posts, Map<String, Integer> userVotes, Set<String> savedIds) {
+
+    public static final PostFeed EMPTY = new PostFeed(List.of(), Map.of());
+
+    public PostFeed(List<Post> posts, Map<String, Integer> userVotes) {
+        this(posts, userVotes, Set.of());
+    }
+
+    public static PostFeed of(List<Post> posts) {
+        return new PostFeed(posts, Map.of());
+    }
+
+    public boolean isEmpty() {
+        return posts.isEmpty();
+    }
+
+    public static final class Serializer extends ValueSerializer<PostFeed> {
+
+        private static final AllocationSampler ALLOCATIONS = new AllocationSampler("post");
+
+        @Override
+        public void serialize(PostFeed feed, JsonGenerator gen, SerializationContext ctxt) throws JacksonException {
+            long sample = ALLOCATIONS.start();
+            long now = System.currentTimeMillis();
+            gen.writeStartArray();
+            for (Post post : feed.posts()) {
+                writePost(gen, post, feed.userVotes().get(post.getId()), feed.savedIds().contains(post.getId()), now);
+            }
+            gen.writeEndArray();
+            ALLOCATIONS.stop(sample, feed.posts().size());
+        }
+
+        private static void writePost(JsonGenerator gen, Post post, Integer userVote, boolean saved, long now) {
+            gen.writeStartObject();
+            gen.writeStringProperty("id", post.getId());
+            gen.writeStringProperty("title", post.getTitle());
+            gen.writeStringProperty("preview", post.getPreview());
+            gen.writeStringProperty("url", post.getUrl());
+            gen.writeStringProperty("thumbnailUrl", post.getThumbnailUrl());
+            gen.writeName("imageUrls");
+            List<String> imageUrls = post.getImageUrls();
+            if (imageUrls == null) {
+                gen.writeNull();
+            } else {
+                gen.writeStartArray();
+                if (!imageUrls.isEmpty()) {
+                    gen.writeString(imageUrls.get(0));
+                }
+                gen.writeEndArray();
+            }
+            gen.writeStringProperty("postType", post.getPostType() != null ? post.getPostType().name() : null);
+            gen.writeStringProperty("authorId", post.getAuthorId());
+            gen.writeStringProperty("authorUsername", post.getAuthorUsername());
+            gen.writeStringProperty("subId", post.getSubId());
+            gen.writeStringProperty("subName", post.getSubName());
+            gen.writeStringProperty("flair", post.getFlair());
+            gen.writeStringProperty("flairColor", post.getFlairColor());
+            gen.writeNumberProperty("voteCount", post.getVoteCount());
+            gen.writeNumberProperty("commentCount", post.getCommentCount());
+            gen.writeStringProperty("createdAt", TimeFormat.dateTime(post.getCreatedAt()));
+            gen.writeNumberProperty("createdAtEpochMs", post.getCreatedAt().toEpochMilli());
+            gen.writeStringProperty("timeAgo", TimeFormat.timeAgo(post.getCreatedAt(), now));
+            gen.writeBooleanProperty("nsfw", post.isNsfw());
+            gen.writeBooleanProperty("spoiler", post.isSpoiler());
+            gen.writeBooleanProperty("locked", post.isLocked());
+            gen.writeBooleanProperty("pinned", post.isPinned());
+            gen.writeBooleanProperty("removed", post.isRemoved());
+            gen.writeStringProperty("removalReason", post.getRemovalReason());
+            if (userVote != null) {
+                gen.writeNumberProperty("userVote", userVote.intValue());
+            } else {
+                gen.writeNullProperty("userVote");
+            }
+            gen.writeBooleanProperty("saved", saved);
+            gen.writeBooleanProperty("hidden", false);
+            gen.writeEndObject();
+        }
+    }
+}
@@ -29,6 +29,7 @@ public class PostResponse {
     private int voteCount;
     private int commentCount;
     private String createdAt;
+    private long createdAtEpochMs;
     private String timeAgo;
     private boolean nsfw;
     private boolean spoiler;
@@ -0,0 +1,18 @@
+package com.nested.server.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A page of a ranked feed plus the token of the snapshot it was cut from
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RankedFeedPage {
+    private PostFeed posts;
+    private String feedToken;
+}
@@ -41,6 +41,16 @@ public class Comment {
     @Builder.Default
     private int voteCount = 0;
 
+    @Builder.Default
+    private int ups = 0;
+
+    @Builder.Default
+    private int downs = 0;
+
+    // See ControversyScore, kept current on votes
+    @Builder.Default
+    private double controversyScore = 0;
+
     @Builder.Default
     private int depth = 0;
 
@@ -0,0 +1,75 @@
+package com.nested.server.model;
+
+import org.springframework.data.domain.Sort;
+
+import java.time.Instant;
+import java.util.Locale;
+
+/**
+ * Sort modes for post feeds. Each mode orders by a single stored field with _id as the
+ * tie-breaker, which is what makes keyset (cursor) pagination possible.
+ */
+public enum FeedSort {
+    HOT("hotScore", Sort.Direction.DESC),
+    NEW("createdAt", Sort.Direction.DESC),
+    TOP("voteCount", Sort.Direction.DESC),
+    CONTROVERSIAL("controversyScore", Sort.Direction.DESC);
+
+    private final String field;
+    private final Sort.Direction direction;
+
+    FeedSort(String field, Sort.Direction direction) {
+        this.field = field;
+        this.direction = direction;
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public Sort.Direction getDirection() {
+        return direction;
+    }
+
+    public Sort toSort() {
+        return Sort.by(direction, field).and(Sort.by(direction, "_id"));
+    }
+
+    /**
+     * The sort key of a post as a double (exact for scores, counts and epoch millis)
+     */
+    public double keyOf(Post post) {
+        return switch (this) {
+            case HOT -> post.getHotScore();
+            case NEW -> post.getCreatedAt().toEpochMilli();
+            case TOP -> post.getVoteCount();
+            case CONTROVERSIAL -> post.getControversyScore();
+        };
+    }
+
+    /**
+     * Convert a cursor key back to the stored field's type for querying
+     */
+    public Object toFieldValue(double key) {
+        return switch (this) {
+            case HOT, CONTROVERSIAL -> key;
+            case NEW -> Instant.ofEpochMilli((long) key);
+            case TOP -> (int) key;
+        };
+    }
+
+    /**
+     * Parse the sort request parameter; unknown values fall back to hot like the page-based feeds
+     */
+    public static FeedSort from(String value) {
+        if (value == null) {
+            return HOT;
+        }
+        return switch (value.toLowerCase(Locale.ROOT)) {
+            case "new" -> NEW;
+            case "top" -> TOP;
+            case "controversial" -> CONTROVERSIAL;
+            default -> HOT;
+        };
+    }
+}
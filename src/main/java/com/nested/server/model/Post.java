@@ -15,14 +15,25 @@ import java.util.List;
 @Getter
 @Setter
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "posts")
 @CompoundIndexes({
-        @CompoundIndex(name = "sub_created", def = "{'subId': 1, 'createdAt': -1}"),
-        @CompoundIndex(name = "sub_votes", def = "{'subId': 1, 'voteCount': -1}"),
-        @CompoundIndex(name = "author_created", def = "{'authorId': 1, 'createdAt': -1}")
+        // Feed indexes end in _id so keyset pagination (sort key + _id tie-breaker) is a pure index scan
+        @CompoundIndex(name = "sub_created_id", def = "{'subId': 1, 'createdAt': -1, '_id': -1}"),
+        @CompoundIndex(name = "sub_votes_id", def = "{'subId': 1, 'voteCount': -1, '_id': -1}"),
+        @CompoundIndex(name = "sub_hot_id", def = "{'subId': 1, 'hotScore': -1, '_id': -1}"),
+        @CompoundIndex(name = "sub_controversy_id", def = "{'subId': 1, 'controversyScore': -1, '_id': -1}"),
+        // Time-windowed top: the createdAt range is cut from the index before ranking by votes
+        @CompoundIndex(name = "sub_created_votes", def = "{'subId': 1, 'createdAt': -1, 'voteCount': -1}"),
+        @CompoundIndex(name = "author_created_id", def = "{'authorId': 1, 'createdAt': -1, '_id': -1}"),
+        @CompoundIndex(name = "hot_id", def = "{'hotScore': -1, '_id': -1}"),
+        @CompoundIndex(name = "created_id", def = "{'createdAt': -1, '_id': -1}"),
+        @CompoundIndex(name = "votes_id", def = "{'voteCount': -1, '_id': -1}"),
+        @CompoundIndex(name = "controversy_id", def = "{'controversyScore': -1, '_id': -1}"),
+        // Only pinned posts are indexed, so the per-sub pinned lookup reads a handful of keys
+        @CompoundIndex(name = "sub_pinned", def = "{'subId': 1, 'pinned': 1}", partialFilter = "{'pinned': true}")
 })
 public class Post {
 
@@ -35,6 +46,9 @@ public class Post {
     @TextIndexed(weight = 1)
     private String content;
 
+    // Truncated plain-text excerpt of content (see PostPreview), served in feeds instead of the body
+    private String preview;
+
     private String url;
 
     private String thumbnailUrl;
@@ -52,21 +66,33 @@ public class Post {
     @Indexed
     private String subId;
 
-    @Indexed
+    // Display only - feeds query by subId
     private String subName;
 
     private String flair;
 
     private String flairColor;
 
-    @Indexed
     @Builder.Default
     private int voteCount = 0;
 
+    @Builder.Default
+    private int ups = 0;
+
+    @Builder.Default
+    private int downs = 0;
+
     @Builder.Default
     private int commentCount = 0;
 
-    @Indexed
+    // Precomputed hot ranking (see HotScore), kept current on vote and comment changes
+    @Builder.Default
+    private double hotScore = 0;
+
+    // Precomputed controversial ranking (see ControversyScore), kept current on votes
+    @Builder.Default
+    private double controversyScore = 0;
+
     @Builder.Default
     private Instant createdAt = Instant.now();
 
@@ -0,0 +1,33 @@
+package com.nested.server.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+@Getter
+@Setter
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "revoked_tokens")
+public class RevokedToken {
+
+    // JWT id (jti) of the revoked token
+    @Id
+    private String id;
+
+    private String userId;
+
+    // TTL index: MongoDB drops the entry once the token would have expired anyway
+    @Indexed(expireAfterSeconds = 0)
+    private Instant expiresAt;
+
+    // Nodes poll on this field to refresh their in-memory revocation set
+    @Indexed
+    @Builder.Default
+    private Instant revokedAt = Instant.now();
+}
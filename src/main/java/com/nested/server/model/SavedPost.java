@@ -0,0 +1,38 @@
+package com.nested.server.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+@Getter
+@Setter
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "saved_posts")
+@CompoundIndexes({
+        // Newest-first keyset pagination of a user's saved posts
+        @CompoundIndex(name = "user_saved_id", def = "{'userId': 1, 'savedAt': -1, '_id': -1}"),
+        // Membership check and upsert target; also keeps a post from being saved twice
+        @CompoundIndex(name = "user_post", def = "{'userId': 1, 'postId': 1}", unique = true)
+})
+public class SavedPost {
+
+    @Id
+    private String id;
+
+    private String userId;
+
+    // Cleanup when a post is deleted
+    @Indexed
+    private String postId;
+
+    @Builder.Default
+    private Instant savedAt = Instant.now();
+}
@@ -0,0 +1,56 @@
+package com.nested.server.model;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+
+/**
+ * Time windows of "top" feeds (the t request parameter). A window only admits posts created
+ * within its duration; ALL has no bound and is the plain all-time ranking.
+ */
+public enum TopWindow {
+    HOUR(Duration.ofHours(1)),
+    DAY(Duration.ofDays(1)),
+    WEEK(Duration.ofDays(7)),
+    MONTH(Duration.ofDays(30)),
+    YEAR(Duration.ofDays(365)),
+    ALL(null);
+
+    private final Duration length;
+
+    TopWindow(Duration length) {
+        this.length = length;
+    }
+
+    public boolean isBounded() {
+        return length != null;
+    }
+
+    /**
+     * Earliest creation time admitted by the window, or null for ALL
+     */
+    public Instant since(Instant now) {
+        return length != null ? now.minus(length) : null;
+    }
+
+    public String key() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Parse the t request parameter; unknown or missing values mean all time
+     */
+    public static TopWindow from(String value) {
+        if (value == null) {
+            return ALL;
+        }
+        return switch (value.toLowerCase(Locale.ROOT)) {
+            case "hour" -> HOUR;
+            case "day" -> DAY;
+            case "week" -> WEEK;
+            case "month" -> MONTH;
+            case "year" -> YEAR;
+            default -> ALL;
+        };
+    }
+}
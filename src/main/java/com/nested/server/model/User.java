@@ -40,12 +40,17 @@ public class User {
     @Builder.Default
     private List<String> subscribedSubs = new ArrayList<>();
 
-    @Builder.Default
-    private Set<String> savedPosts = new HashSet<>();
-
     @Builder.Default
     private Set<String> hiddenPosts = new HashSet<>();
 
+    /**
+     * Legacy embedded saved posts, now held in saved_posts. Still mapped so that full-document
+     * saves write back whatever is there instead of dropping it before SavedPostMigration has
+     * moved it (or after an older node added to it during a rolling deploy). Do not use.
+     */
+    @Deprecated
+    private Set<String> savedPosts;
+
     @Builder.Default
     private Instant createdAt = Instant.now();
 
@@ -63,4 +68,11 @@ public class User {
     @Builder.Default
     private boolean twoFactorEnabled = false;
     private String twoFactorSecret;  // Encrypted TOTP secret
+
+    // Session invalidation - tokens carrying an older version are rejected
+    @Builder.Default
+    private int tokenVersion = 0;
+
+    @Indexed(sparse = true)  // Polled by every node to refresh its token version table
+    private Instant credentialsChangedAt;
 }
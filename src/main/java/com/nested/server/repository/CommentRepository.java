@@ -22,11 +22,22 @@ public interface CommentRepository extends MongoRepository<Comment, String> {
     void incrementVoteCount(String commentId, int delta);
 
     /**
-     * Projection query for vote operations - only fetches authorId and voteCount
+     * Atomic $inc of the net count and the separate up/down counters of one vote change
      */
-    @Query(value = "{ '_id': ?0 }", fields = "{ 'authorId': 1, 'voteCount': 1 }")
+    @Query("{ '_id': ?0 }")
+    @Update("{ '$inc': { 'voteCount': ?1, 'ups': ?2, 'downs': ?3 } }")
+    void incrementVotes(String commentId, int delta, int upsDelta, int downsDelta);
+
+    /**
+     * Projection query for vote operations - only fetches authorId and the vote counters
+     */
+    @Query(value = "{ '_id': ?0 }", fields = "{ 'authorId': 1, 'voteCount': 1, 'ups': 1, 'downs': 1 }")
     Optional<Comment> findAuthorIdAndVoteCountById(String commentId);
 
+    @Query("{ '_id': ?0 }")
+    @Update("{ '$set': { 'controversyScore': ?1 } }")
+    void updateControversyScore(String commentId, double controversyScore);
+
     /**
      * Paginated root comments (no parent) - for lazy loading
      */
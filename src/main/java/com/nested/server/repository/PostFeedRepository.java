@@ -0,0 +1,43 @@
+package com.nested.server.repository;
+
+import com.nested.server.dto.FeedCursor;
+import com.nested.server.dto.PostFeed;
+import com.nested.server.model.FeedSort;
+import com.nested.server.model.Post;
+import org.springframework.data.mongodb.core.query.CriteriaDefinition;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Keyset-paginated feed queries, which derived query methods cannot express
+ */
+public interface PostFeedRepository {
+
+    /**
+     * Posts matching the filter in feed order, strictly after the cursor.
+     * Never issues a count; callers request one extra row to learn whether more exist.
+     */
+    List<Post> findFeed(CriteriaDefinition filter, FeedSort sort, FeedCursor after, int limit);
+
+    /**
+     * Ids only of the posts findFeed would return
+     */
+    List<String> findFeedIds(CriteriaDefinition filter, FeedSort sort, FeedCursor after, int limit);
+
+    /**
+     * Whether any post matches the filter (a single index probe, no count)
+     */
+    boolean existsMatching(CriteriaDefinition filter);
+
+    /**
+     * Same page as findFeed, with the given user's votes on those posts joined in by the
+     * same aggregation - one roundtrip instead of a posts query followed by a votes query
+     */
+    PostFeed findFeedWithVotes(CriteriaDefinition filter, FeedSort sort, FeedCursor after, int limit, String userId);
+
+    /**
+     * List-projected posts with the given ids (in no particular order) plus the user's votes on them
+     */
+    PostFeed findByIdInWithVotes(Collection<String> ids, String userId);
+}
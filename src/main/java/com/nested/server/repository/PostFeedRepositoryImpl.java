@@ -0,0 +1,143 @@
+package com.nested.server.repository;
+
+import com.nested.server.dto.FeedCursor;
+import com.nested.server.dto.PostFeed;
+import com.nested.server.model.FeedSort;
+import com.nested.server.model.Post;
+import com.nested.server.model.Vote;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.CriteriaDefinition;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+class PostFeedRepositoryImpl implements PostFeedRepository {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public List<Post> findFeed(CriteriaDefinition filter, FeedSort sort, FeedCursor after, int limit) {
+        Query query = feedQuery(filter, sort, after);
+        query.with(sort.toSort()).limit(limit);
+        // Same list projection as PostRepository.LIST_FIELDS
+        query.fields().exclude("content").slice("imageUrls", 1);
+        return mongoTemplate.find(query, Post.class);
+    }
+
+    @Override
+    public List<String> findFeedIds(CriteriaDefinition filter, FeedSort sort, FeedCursor after, int limit) {
+        Query query = feedQuery(filter, sort, after);
+        query.with(sort.toSort()).limit(limit);
+        query.fields().include("_id");
+        List<Post> posts = mongoTemplate.find(query, Post.class);
+        List<String> ids = new ArrayList<>(posts.size());
+        for (Post post : posts) {
+            ids.add(post.getId());
+        }
+        return ids;
+    }
+
+    @Override
+    public boolean existsMatching(CriteriaDefinition filter) {
+        return mongoTemplate.exists(new Query(filter), Post.class);
+    }
+
+    @Override
+    public PostFeed findFeedWithVotes(CriteriaDefinition filter, FeedSort sort, FeedCursor after, int limit, String userId) {
+        return aggregateWithVotes(feedQuery(filter, sort, after), sort.toSort(), limit, userId);
+    }
+
+    @Override
+    public PostFeed findByIdInWithVotes(Collection<String> ids, String userId) {
+        return aggregateWithVotes(new Query(Criteria.where("_id").in(ids)), Sort.unsorted(), ids.size(), userId);
+    }
+
+    private static Query feedQuery(CriteriaDefinition filter, FeedSort sort, FeedCursor after) {
+        Query query = new Query();
+        Criteria seek = after != null ? seekPast(sort, after) : null;
+        if (filter instanceof Criteria criteria && seek != null) {
+            // The filter may use $or itself, so combine explicitly instead of adding a second top-level $or
+            query.addCriteria(new Criteria().andOperator(criteria, seek));
+        } else {
+            if (filter != null) {
+                query.addCriteria(filter);
+            }
+            if (seek != null) {
+                query.addCriteria(seek);
+            }
+        }
+        return query;
+    }
+
+    /**
+     * $match, $sort and $limit as the plain query would, the list projection, then a $lookup of
+     * at most one votes row per post for this user. The lookup matches on userId plus targetId,
+     * which is answered by the {userId, targetId} index.
+     */
+    private PostFeed aggregateWithVotes(Query query, Sort sort, int limit, String userId) {
+        List<AggregationOperation> stages = new ArrayList<>();
+        // Mapped through the Post type so _id strings become ObjectIds, as in a regular query
+        Document match = query.getQueryObject();
+        stages.add(context -> new Document("$match", context.getMappedObject(match, Post.class)));
+        if (sort.isSorted()) {
+            stages.add(Aggregation.sort(sort));
+        }
+        stages.add(Aggregation.limit(limit));
+        stages.add(context -> new Document("$unset", "content"));
+        stages.add(context -> new Document("$set",
+                new Document("imageUrls", new Document("$slice", List.of("$imageUrls", 1)))));
+        stages.add(context -> new Document("$lookup", new Document("from", "votes")
+                // Votes store the target id as a string, posts use an ObjectId
+                .append("let", new Document("postId", new Document("$toString", "$_id")))
+                .append("pipeline", List.of(
+                        new Document("$match", new Document("userId", userId)
+                                .append("$expr", new Document("$eq", List.of("$targetId", "$$postId")))),
+                        new Document("$project", new Document("_id", 0).append("voteType", 1)),
+                        new Document("$limit", 1)))
+                .append("as", "userVotes")));
+
+        TypedAggregation<Post> aggregation = Aggregation.newAggregation(Post.class, stages);
+        List<Document> results = mongoTemplate.aggregate(aggregation, Document.class).getMappedResults();
+
+        List<Post> posts = new ArrayList<>(results.size());
+        Map<String, Integer> votes = new HashMap<>();
+        for (Document result : results) {
+            Post post = mongoTemplate.getConverter().read(Post.class, result);
+            posts.add(post);
+            List<Document> userVotes = result.getList("userVotes", Document.class, List.of());
+            if (!userVotes.isEmpty()) {
+                String voteType = userVotes.get(0).getString("voteType");
+                votes.put(post.getId(), Vote.VoteType.valueOf(voteType).getValue());
+            }
+        }
+        return new PostFeed(posts, votes);
+    }
+
+    /**
+     * (field past key) OR (field == key AND _id past id) - the classic keyset predicate,
+     * answered by a {field, _id} index without skipping
+     */
+    private static Criteria seekPast(FeedSort sort, FeedCursor after) {
+        Object value = sort.toFieldValue(after.key());
+        boolean descending = sort.getDirection() == Sort.Direction.DESC;
+        Criteria pastKey = descending
+                ? Criteria.where(sort.getField()).lt(value)
+                : Criteria.where(sort.getField()).gt(value);
+        Criteria tieBreak = descending
+                ? Criteria.where(sort.getField()).is(value).and("_id").lt(after.id())
+                : Criteria.where(sort.getField()).is(value).and("_id").gt(after.id());
+        return new Criteria().orOperator(pastKey, tieBreak);
+    }
+}
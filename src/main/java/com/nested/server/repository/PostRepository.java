@@ -1,43 +1,94 @@
 package com.nested.server.repository;
 
 import com.nested.server.model.Post;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.data.mongodb.repository.Update;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 
 @Repository
-public interface PostRepository extends MongoRepository<Post, String> {
+public interface PostRepository extends MongoRepository<Post, String>, PostFeedRepository {
 
-    Page<Post> findBySubName(String subName, Pageable pageable);
+    /**
+     * Projection for post lists - skips the body (lists use the stored preview) and all but the first image
+     */
+    String LIST_FIELDS = "{ 'content': 0, 'imageUrls': { '$slice': 1 } }";
+
+    // Slice rather than Page: feeds never show totals, so skip the extra count query
+    @Query(fields = LIST_FIELDS)
+    Slice<Post> findBySubId(String subId, Pageable pageable);
+
+    @Query(fields = LIST_FIELDS)
+    Slice<Post> findByAuthorId(String authorId, Pageable pageable);
+
+    @Query(fields = LIST_FIELDS)
+    Slice<Post> findBySubIdIn(List<String> subIds, Pageable pageable);
+
+    @Query(fields = LIST_FIELDS)
+    Slice<Post> findAllBy(Pageable pageable);
+
+    /**
+     * Id-only projections used to materialize ranked feed snapshots
+     */
+    @Query(value = "{ 'subId': { '$in': ?0 } }", fields = "{ '_id': 1 }")
+    List<Post> findIdsBySubIdIn(List<String> subIds, Pageable pageable);
+
+    @Query(value = "{ 'subId': { '$in': ?0 } }", fields = "{ '_id': 1, 'hotScore': 1, 'createdAt': 1, 'voteCount': 1 }")
+    List<Post> findRankingBySubIdIn(List<String> subIds, Pageable pageable);
+
+    // Covered by the sub_*_id indexes: filter, sort key and _id are all in the index
+    @Query(value = "{ 'subId': ?0 }", fields = "{ '_id': 1 }")
+    List<Post> findIdsBySubId(String subId, Pageable pageable);
+
+    @Query(value = "{}", fields = "{ '_id': 1 }")
+    List<Post> findAllIds(Pageable pageable);
 
-    Page<Post> findByAuthorId(String authorId, Pageable pageable);
+    // Id-only rankings of posts created since a point in time (windowed top feeds)
+    @Query(value = "{ 'createdAt': { '$gte': ?0 } }", fields = "{ '_id': 1 }")
+    List<Post> findIdsCreatedSince(Instant since, Pageable pageable);
 
-    Page<Post> findBySubIdIn(List<String> subIds, Pageable pageable);
+    @Query(value = "{ 'subId': ?0, 'createdAt': { '$gte': ?1 } }", fields = "{ '_id': 1 }")
+    List<Post> findIdsBySubIdCreatedSince(String subId, Instant since, Pageable pageable);
 
+    @Query(value = "{ 'subId': { '$in': ?0 }, 'createdAt': { '$gte': ?1 } }", fields = "{ '_id': 1 }")
+    List<Post> findIdsBySubIdInCreatedSince(List<String> subIds, Instant since, Pageable pageable);
+
+    @Query(fields = LIST_FIELDS)
     List<Post> findTop100ByOrderByVoteCountDesc();
 
+    @Query(fields = LIST_FIELDS)
     List<Post> findTop100ByOrderByCreatedAtDesc();
 
-    List<Post> findTop100ByCreatedAtAfterOrderByVoteCountDesc(Instant since);
+    @Query(fields = LIST_FIELDS)
+    List<Post> findTop100ByOrderByHotScoreDesc();
 
     // Text search using MongoDB text index (more efficient than regex)
-    @Query("{ '$text': { '$search': ?0 } }")
-    Page<Post> searchByText(String searchQuery, Pageable pageable);
+    @Query(value = "{ '$text': { '$search': ?0 } }", fields = LIST_FIELDS)
+    Slice<Post> searchByText(String searchQuery, Pageable pageable);
 
     // Fallback: Search by title or content containing keyword (case-insensitive)
-    Page<Post> findByTitleContainingIgnoreCaseOrContentContainingIgnoreCase(
+    @Query(fields = LIST_FIELDS)
+    Slice<Post> findByTitleContainingIgnoreCaseOrContentContainingIgnoreCase(
             String title, String content, Pageable pageable);
 
-    // Find posts by IDs (for saved posts)
-    List<Post> findByIdIn(Set<String> ids);
+    // Find posts by IDs for lists (saved posts, ranked feed pages)
+    @Query(fields = LIST_FIELDS)
+    List<Post> findByIdIn(Collection<String> ids);
+
+    // Pinned posts of a sub, newest pin first (served by the partial sub_pinned index)
+    @Query(value = "{ 'subId': ?0, 'pinned': true, 'removed': { '$ne': true } }", fields = LIST_FIELDS,
+            sort = "{ 'pinnedAt': -1 }")
+    List<Post> findPinnedBySubId(String subId);
+
+    @Query(value = "{ 'subId': ?0, 'pinned': true, 'removed': { '$ne': true } }", count = true)
+    long countPinnedBySubId(String subId);
 
     /**
      * Atomic vote count increment using MongoDB's $inc operator
@@ -46,6 +97,13 @@ public interface PostRepository extends MongoRepository<Post, String> {
     @Update("{ '$inc': { 'voteCount': ?1 } }")
     void incrementVoteCount(String postId, int delta);
 
+    /**
+     * Atomic $inc of the net count and the separate up/down counters of one vote change
+     */
+    @Query("{ '_id': ?0 }")
+    @Update("{ '$inc': { 'voteCount': ?1, 'ups': ?2, 'downs': ?3 } }")
+    void incrementVotes(String postId, int delta, int upsDelta, int downsDelta);
+
     /**
      * Atomic comment count increment using MongoDB's $inc operator
      */
@@ -54,14 +112,16 @@ public interface PostRepository extends MongoRepository<Post, String> {
     void incrementCommentCount(String postId, int delta);
 
     /**
-     * Projection query for vote operations - only fetches authorId and voteCount
+     * Projection query for vote and comment operations - author plus the hot score inputs
      */
-    @Query(value = "{ '_id': ?0 }", fields = "{ 'authorId': 1, 'voteCount': 1 }")
-    Optional<Post> findAuthorIdAndVoteCountById(String postId);
+    @Query(value = "{ '_id': ?0 }", fields = "{ 'authorId': 1, 'subId': 1, 'voteCount': 1, 'ups': 1, 'downs': 1, 'commentCount': 1, 'createdAt': 1 }")
+    Optional<Post> findVoteStateById(String postId);
 
-    /**
-     * Lightweight projection for post lists - excludes large fields like content and imageUrls
-     */
-    @Query(value = "{}", fields = "{ 'content': 0, 'imageUrls': 0 }")
-    List<Post> findAllProjectedForList();
+    @Query("{ '_id': ?0 }")
+    @Update("{ '$set': { 'hotScore': ?1 } }")
+    void updateHotScore(String postId, double hotScore);
+
+    @Query("{ '_id': ?0 }")
+    @Update("{ '$set': { 'hotScore': ?1, 'controversyScore': ?2 } }")
+    void updateScores(String postId, double hotScore, double controversyScore);
 }
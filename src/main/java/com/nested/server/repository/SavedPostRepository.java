@@ -0,0 +1,28 @@
+package com.nested.server.repository;
+
+import com.nested.server.model.SavedPost;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface SavedPostRepository extends MongoRepository<SavedPost, String> {
+
+    boolean existsByUserIdAndPostId(String userId, String postId);
+
+    long deleteByUserIdAndPostId(String userId, String postId);
+
+    void deleteByPostId(String postId);
+
+    List<SavedPost> findByUserId(String userId, Pageable pageable);
+
+    /**
+     * Keyset page after (savedAt, id); sort the pageable by savedAt then id, both descending
+     */
+    @Query("{ 'userId': ?0, '$or': [ { 'savedAt': { '$lt': ?1 } }, { 'savedAt': ?1, '_id': { '$lt': ?2 } } ] }")
+    List<SavedPost> findByUserIdAfter(String userId, Instant savedAt, String id, Pageable pageable);
+}
@@ -22,6 +22,12 @@ public interface SubsRepository extends MongoRepository<Subs, String> {
 
     List<Subs> findByIdIn(List<String> ids);
 
+    /**
+     * Ids of the given subs with at least minSubscribers subscribers (projection - only _id is loaded)
+     */
+    @Query(value = "{ '_id': { '$in': ?0 }, 'subscriberCount': { '$gte': ?1 } }", fields = "{ '_id': 1 }")
+    List<Subs> findIdsByIdInAndSubscriberCountAtLeast(List<String> ids, int minSubscribers);
+
     // Find subs where user is a moderator
     List<Subs> findByModeratorIdsContaining(String moderatorId);
 
@@ -6,6 +6,7 @@ import org.springframework.data.mongodb.repository.Query;
 import org.springframework.data.mongodb.repository.Update;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
@@ -45,44 +46,45 @@ public interface UserRepository extends MongoRepository<User, String> {
     void removeSubscription(String userId, String subsId);
 
     /**
-     * Add saved post atomically using $addToSet (prevents duplicates)
+     * Add hidden post atomically using $addToSet (prevents duplicates)
      */
     @Query("{ '_id': ?0 }")
-    @Update("{ '$addToSet': { 'savedPosts': ?1 } }")
-    void addSavedPost(String userId, String postId);
+    @Update("{ '$addToSet': { 'hiddenPosts': ?1 } }")
+    void addHiddenPost(String userId, String postId);
 
     /**
-     * Remove saved post atomically using $pull
+     * Remove hidden post atomically using $pull
      */
     @Query("{ '_id': ?0 }")
-    @Update("{ '$pull': { 'savedPosts': ?1 } }")
-    void removeSavedPost(String userId, String postId);
+    @Update("{ '$pull': { 'hiddenPosts': ?1 } }")
+    void removeHiddenPost(String userId, String postId);
 
     /**
-     * Add hidden post atomically using $addToSet (prevents duplicates)
+     * Check if a post is hidden (projection query for efficiency)
      */
-    @Query("{ '_id': ?0 }")
-    @Update("{ '$addToSet': { 'hiddenPosts': ?1 } }")
-    void addHiddenPost(String userId, String postId);
+    @Query(value = "{ '_id': ?0, 'hiddenPosts': ?1 }", exists = true)
+    boolean isPostHidden(String userId, String postId);
 
     /**
-     * Remove hidden post atomically using $pull
+     * Disable an account and invalidate its tokens in one update
      */
     @Query("{ '_id': ?0 }")
-    @Update("{ '$pull': { 'hiddenPosts': ?1 } }")
-    void removeHiddenPost(String userId, String postId);
+    @Update("{ '$inc': { 'tokenVersion': 1 }, '$set': { 'enabled': false, 'credentialsChangedAt': ?1 } }")
+    void disableAccount(String userId, Instant changedAt);
 
     /**
-     * Check if a post is saved (projection query for efficiency)
+     * Replace a password hash only if it has not changed since it was read (used for rehashing)
      */
-    @Query(value = "{ '_id': ?0, 'savedPosts': ?1 }", exists = true)
-    boolean isPostSaved(String userId, String postId);
+    @Query("{ '_id': ?0, 'password': ?1 }")
+    @Update("{ '$set': { 'password': ?2 } }")
+    long replacePasswordHash(String userId, String expectedHash, String newHash);
 
     /**
-     * Check if a post is hidden (projection query for efficiency)
+     * Projection for the token version table - only users whose sessions changed recently
      */
-    @Query(value = "{ '_id': ?0, 'hiddenPosts': ?1 }", exists = true)
-    boolean isPostHidden(String userId, String postId);
+    @Query(value = "{ 'credentialsChangedAt': { '$gt': ?0 } }",
+            fields = "{ 'tokenVersion': 1, 'enabled': 1, 'credentialsChangedAt': 1 }")
+    List<User> findCredentialChangesSince(Instant since);
 
     /**
      * Search users by username (case-insensitive)
@@ -0,0 +1,69 @@
+package com.nested.server.security;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Reads, writes and clears the HttpOnly token cookie
+ */
+@Component
+public class AuthCookies {
+
+    public static final String TOKEN_COOKIE_NAME = "token";
+    private static final Duration TOKEN_EXPIRY = Duration.ofDays(7);
+
+    @Value("${app.cookie.secure:false}")
+    private boolean secureCookie;
+
+    /**
+     * Read the token from the Authorization header, falling back to the cookie
+     */
+    public static String readToken(HttpServletRequest request) {
+        // Try Authorization header first
+        String authHeader = request.getHeader("Authorization");
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            return authHeader.substring(7);
+        }
+
+        // Try cookie
+        Cookie[] cookies = request.getCookies();
+        if (cookies != null) {
+            for (Cookie cookie : cookies) {
+                if (TOKEN_COOKIE_NAME.equals(cookie.getName())) {
+                    return cookie.getValue();
+                }
+            }
+        }
+
+        return null;
+    }
+
+    public void setToken(HttpServletResponse response, String token) {
+        ResponseCookie cookie = ResponseCookie.from(TOKEN_COOKIE_NAME, token)
+                .httpOnly(true)           // JavaScript cannot access - XSS protection
+                .secure(secureCookie)     // HTTPS only in production
+                .path("/")                // Available on all paths
+                .maxAge(TOKEN_EXPIRY)     // 7 days
+                .sameSite("Strict")       // CSRF protection - cookie only sent for same-site requests
+                .build();
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+    }
+
+    public void clearToken(HttpServletResponse response) {
+        ResponseCookie cookie = ResponseCookie.from(TOKEN_COOKIE_NAME, "")
+                .httpOnly(true)
+                .secure(secureCookie)
+                .path("/")
+                .maxAge(0)
+                .sameSite("Strict")
+                .build();
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+    }
+}
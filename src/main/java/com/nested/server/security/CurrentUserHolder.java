@@ -0,0 +1,24 @@
+package com.nested.server.security;
+
+import com.nested.server.model.User;
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Request-scoped holder for the User loaded during authentication,
+ * so controllers never look the same user up a second time.
+ */
+public final class CurrentUserHolder {
+
+    private static final String ATTRIBUTE = CurrentUserHolder.class.getName() + ".USER";
+
+    private CurrentUserHolder() {
+    }
+
+    public static void set(HttpServletRequest request, User user) {
+        request.setAttribute(ATTRIBUTE, user);
+    }
+
+    public static User get(HttpServletRequest request) {
+        return (User) request.getAttribute(ATTRIBUTE);
+    }
+}
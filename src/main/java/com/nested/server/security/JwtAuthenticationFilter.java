@@ -1,6 +1,8 @@
 package com.nested.server.security;
 
+import com.nested.server.model.User;
 import com.nested.server.service.UserService;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.security.SignatureException;
@@ -32,22 +34,33 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
     private final UserService userService;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final TokenRevocationService tokenRevocationService;
     private final SecurityContextRepository securityContextRepository = new RequestAttributeSecurityContextRepository();
 
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain filterChain)
             throws ServletException, IOException {
 
-        String token = extractToken(request);
+        String token = AuthCookies.readToken(request);
 
         if (token != null) {
             try {
-                String username = jwtUtil.extractUsername(token);
+                // Single parse: signature and expiry are verified here (or served from the verified-token cache)
+                Claims claims = jwtUtil.verify(token);
+                String username = claims.getSubject();
 
-                if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                    UserDetails userDetails = userService.loadUserByUsername(username);
+                // Revoked tokens (logout) - in-memory probe, no database call
+                if (claims.getId() != null && tokenRevocationService.isRevoked(claims.getId())) {
+                    log.debug("Rejected revoked JWT for user: {}", username);
+                    clearTokenCookie(response);
+                } else if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                    UserDetails userDetails = resolvePrincipal(claims, username, request);
 
-                    if (jwtUtil.isTokenValid(token, userDetails.getUsername())) {
+                    if (userDetails == null) {
+                        log.debug("Rejected superseded JWT for user: {}", username);
+                        clearTokenCookie(response);
+                    } else {
                         UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                                 userDetails, null, userDetails.getAuthorities());
                         authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -76,24 +89,26 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
-    private String extractToken(HttpServletRequest request) {
-        // Try Authorization header first
-        String authHeader = request.getHeader("Authorization");
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            return authHeader.substring(7);
-        }
-
-        // Try cookie
-        Cookie[] cookies = request.getCookies();
-        if (cookies != null) {
-            for (Cookie cookie : cookies) {
-                if ("token".equals(cookie.getName())) {
-                    return cookie.getValue();
-                }
+    /**
+     * Build the principal from verified claims. Only the in-memory token version table is
+     * consulted; tokens issued before claims were embedded fall back to the user cache.
+     * Returns null if the token has been superseded (password change, account disabled).
+     */
+    private UserDetails resolvePrincipal(Claims claims, String username, HttpServletRequest request) {
+        String userId = claims.get(JwtUtil.CLAIM_USER_ID, String.class);
+        if (userId != null) {
+            Integer tokenVersion = claims.get(JwtUtil.CLAIM_TOKEN_VERSION, Integer.class);
+            if (!tokenVersionRegistry.isCurrent(userId, tokenVersion != null ? tokenVersion : 0)) {
+                return null;
             }
+            return new JwtPrincipal(userId, username, claims.get(JwtUtil.CLAIM_ROLE, String.class));
         }
 
-        return null;
+        User user = userService.findCachedByUsername(username)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
+        // Keep the loaded user for @CurrentUser so controllers skip a second lookup
+        CurrentUserHolder.set(request, user);
+        return userService.toUserDetails(user);
     }
 
     /**
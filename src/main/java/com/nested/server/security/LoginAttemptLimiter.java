@@ -0,0 +1,113 @@
+package com.nested.server.security;
+
+import com.nested.server.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-username and per-IP counters of failed logins over a fixed window.
+ * Checked before any password hashing, so credential stuffing is turned away
+ * without spending BCrypt time on it.
+ */
+@Component
+public class LoginAttemptLimiter {
+
+    private final Map<String, Window> failuresByUsername = new ConcurrentHashMap<>();
+    private final Map<String, Window> failuresByIp = new ConcurrentHashMap<>();
+    private final Counter blocked;
+
+    @Value("${app.auth.login.max-failures-per-user:10}")
+    private int maxFailuresPerUser;
+
+    @Value("${app.auth.login.max-failures-per-ip:50}")
+    private int maxFailuresPerIp;
+
+    @Value("${app.auth.login.failure-window-ms:900000}")
+    private long windowMillis;
+
+    public LoginAttemptLimiter(MeterRegistry meterRegistry) {
+        this.blocked = Counter.builder("auth.login.blocked")
+                .description("Login attempts refused by the failure counters")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Throws if either the username or the client address has too many recent failures
+     */
+    public void checkAllowed(String username, String clientIp) {
+        long now = System.currentTimeMillis();
+        long retryAfter = Math.max(
+                blockedForMillis(failuresByUsername, key(username), maxFailuresPerUser, now),
+                blockedForMillis(failuresByIp, clientIp, maxFailuresPerIp, now));
+        if (retryAfter > 0) {
+            blocked.increment();
+            throw new TooManyRequestsException("Too many failed login attempts, please try again later",
+                    Math.max(1, retryAfter / 1000));
+        }
+    }
+
+    public void recordFailure(String username, String clientIp) {
+        long now = System.currentTimeMillis();
+        increment(failuresByUsername, key(username), now);
+        increment(failuresByIp, clientIp, now);
+    }
+
+    /**
+     * A successful login clears the username's counter; the address keeps its history
+     */
+    public void recordSuccess(String username) {
+        failuresByUsername.remove(key(username));
+    }
+
+    @Scheduled(fixedDelayString = "${app.auth.login.cleanup-ms:60000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        failuresByUsername.values().removeIf(window -> window.isExpired(now));
+        failuresByIp.values().removeIf(window -> window.isExpired(now));
+    }
+
+    private long blockedForMillis(Map<String, Window> counters, String key, int limit, long now) {
+        if (key == null) {
+            return 0;
+        }
+        Window window = counters.get(key);
+        if (window == null || window.isExpired(now) || window.failures.get() < limit) {
+            return 0;
+        }
+        return window.expiresAtMillis - now;
+    }
+
+    private void increment(Map<String, Window> counters, String key, long now) {
+        if (key == null) {
+            return;
+        }
+        counters.compute(key, (k, window) ->
+                window == null || window.isExpired(now) ? new Window(now + windowMillis) : window)
+                .failures.incrementAndGet();
+    }
+
+    private static String key(String username) {
+        return username != null ? username.toLowerCase(Locale.ROOT) : null;
+    }
+
+    private static final class Window {
+        private final long expiresAtMillis;
+        private final AtomicInteger failures = new AtomicInteger();
+
+        private Window(long expiresAtMillis) {
+            this.expiresAtMillis = expiresAtMillis;
+        }
+
+        private boolean isExpired(long now) {
+            return expiresAtMillis <= now;
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.nested.server.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.NonNull;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token-bucket throttling for write endpoints. Runs after JWT authentication so signed-in
+ * clients are limited per user and anonymous ones per IP address. A request that passes its
+ * client bucket is then charged to the IP address's bucket, which has its own, higher limits
+ * so that many accounts behind one NAT or office address are not held to a single user's rate.
+ * Buckets refill lazily on access and are dropped once they have been idle long enough
+ * to be full again, so memory tracks the set of active writers.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final int IP_MULTIPLIER = 10;
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+
+    // POST path -> route; exact paths only, so matching is a single hash lookup
+    private final Map<String, Route> routes = new HashMap<>();
+    private final List<Route> allRoutes = new ArrayList<>();
+
+    @PostConstruct
+    void init() {
+        Route votes = route("votes", 30, 60);
+        Route comments = route("comments", 5, 10);
+        Route posts = route("posts", 3, 5);
+        Route reports = route("reports", 5, 10);
+        Route uploads = route("uploads", 5, 10);
+
+        routes.put("/api/votes", votes);
+        routes.put("/api/comments", comments);
+        routes.put("/api/posts", posts);
+        routes.put("/api/mod/reports", reports);
+        routes.put("/api/users/me/avatar", uploads);
+        routes.put("/api/images/post", uploads);
+        allRoutes.addAll(List.of(votes, comments, posts, reports, uploads));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !"POST".equals(request.getMethod()) || !routes.containsKey(routePath(request));
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain filterChain)
+            throws ServletException, IOException {
+
+        Route route = routes.get(routePath(request));
+        String userKey = currentUserKey();
+        String ip = request.getRemoteAddr();
+        // The address is only charged once the client's own bucket has accepted
+        long waitNanos = route.client.tryAcquire(userKey != null ? userKey : "ip:" + ip);
+        if (waitNanos == 0) {
+            waitNanos = route.ip.tryAcquire(ip);
+        }
+
+        if (waitNanos > 0) {
+            route.rejected.increment();
+            long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+            log.debug("Rate limited {} on {} - retry in {}s",
+                    userKey != null ? userKey : request.getRemoteAddr(), route.name, retryAfterSeconds);
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+            response.setContentType("application/json");
+            response.getWriter().write("{\"status\":429,\"error\":\"Too Many Requests\","
+                    + "\"message\":\"You are doing that too often. Try again in " + retryAfterSeconds + "s.\"}");
+            return;
+        }
+
+        route.allowed.increment();
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Drop buckets that have refilled completely - they are indistinguishable from new ones
+     */
+    @Scheduled(fixedDelayString = "${app.rate-limit.cleanup-ms:60000}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        for (Route route : allRoutes) {
+            route.client.evictIdle(now);
+            route.ip.evictIdle(now);
+        }
+    }
+
+    /**
+     * Request path without a trailing slash, so /api/votes/ is limited like /api/votes
+     */
+    private static String routePath(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        int end = uri.length();
+        while (end > 1 && uri.charAt(end - 1) == '/') {
+            end--;
+        }
+        return end == uri.length() ? uri : uri.substring(0, end);
+    }
+
+    private static String currentUserKey() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !auth.isAuthenticated()) {
+            return null;
+        }
+        Object principal = auth.getPrincipal();
+        if (principal instanceof JwtPrincipal jwtPrincipal) {
+            return jwtPrincipal.userId();
+        }
+        if (principal instanceof UserDetails userDetails) {
+            return userDetails.getUsername();
+        }
+        return null;
+    }
+
+    /**
+     * Limits come from app.rate-limit.{name}.capacity (burst) and app.rate-limit.{name}.per-minute
+     * (sustained rate) per client, and app.rate-limit.{name}.ip-capacity / ip-per-minute per IP
+     * address, which default to ten times the client limits
+     */
+    private Route route(String name, int defaultCapacity, int defaultPerMinute) {
+        String prefix = "app.rate-limit." + name;
+        int capacity = environment.getProperty(prefix + ".capacity", Integer.class, defaultCapacity);
+        int perMinute = environment.getProperty(prefix + ".per-minute", Integer.class, defaultPerMinute);
+        int ipCapacity = environment.getProperty(prefix + ".ip-capacity", Integer.class, capacity * IP_MULTIPLIER);
+        int ipPerMinute = environment.getProperty(prefix + ".ip-per-minute", Integer.class, perMinute * IP_MULTIPLIER);
+        return new Route(name, new Buckets(capacity, perMinute), new Buckets(ipCapacity, ipPerMinute), meterRegistry);
+    }
+
+    private static final class Route {
+        private final String name;
+        // Signed-in users by user key, anonymous clients by "ip:" + address
+        private final Buckets client;
+        private final Buckets ip;
+        private final Counter allowed;
+        private final Counter rejected;
+
+        private Route(String name, Buckets client, Buckets ip, MeterRegistry meterRegistry) {
+            this.name = name;
+            this.client = client;
+            this.ip = ip;
+            this.allowed = Counter.builder("ratelimit.requests")
+                    .tag("route", name)
+                    .tag("outcome", "allowed")
+                    .register(meterRegistry);
+            this.rejected = Counter.builder("ratelimit.requests")
+                    .tag("route", name)
+                    .tag("outcome", "rejected")
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Buckets sharing one limit, by key
+     */
+    private static final class Buckets {
+        private final double capacity;
+        private final double tokensPerNano;
+        private final long fullRefillNanos;
+        private final Map<String, Bucket> byKey = new ConcurrentHashMap<>();
+
+        private Buckets(int capacity, int perMinute) {
+            this.capacity = capacity;
+            this.tokensPerNano = perMinute / (double) TimeUnit.MINUTES.toNanos(1);
+            this.fullRefillNanos = (long) (capacity / tokensPerNano);
+        }
+
+        /**
+         * Returns 0 if a token was taken, otherwise the nanos until one becomes available
+         */
+        private long tryAcquire(String key) {
+            long now = System.nanoTime();
+            Bucket bucket = byKey.get(key);
+            if (bucket == null) {
+                bucket = byKey.computeIfAbsent(key, k -> new Bucket(capacity, now));
+            }
+            return bucket.tryAcquire(now, capacity, tokensPerNano);
+        }
+
+        private void evictIdle(long now) {
+            byKey.values().removeIf(bucket -> bucket.isIdle(now, fullRefillNanos));
+        }
+    }
+
+    /**
+     * A single client's bucket. Each bucket has its own monitor, so contention is per client only.
+     */
+    private static final class Bucket {
+        private double tokens;
+        private long lastRefillNanos;
+
+        private Bucket(double tokens, long now) {
+            this.tokens = tokens;
+            this.lastRefillNanos = now;
+        }
+
+        private synchronized long tryAcquire(long now, double capacity, double tokensPerNano) {
+            if (now > lastRefillNanos) {
+                tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * tokensPerNano);
+                lastRefillNanos = now;
+            }
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - tokens) / tokensPerNano);
+        }
+
+        private synchronized boolean isIdle(long now, long fullRefillNanos) {
+            return now - lastRefillNanos >= fullRefillNanos;
+        }
+    }
+}
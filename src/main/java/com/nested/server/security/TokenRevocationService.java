@@ -0,0 +1,76 @@
+package com.nested.server.security;
+
+import com.nested.server.model.RevokedToken;
+import com.nested.server.repository.RevokedTokenRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revocation list for individual tokens (jti). Revocations are persisted in MongoDB with a
+ * TTL index and mirrored in a per-node hash set, so the per-request check is a memory probe.
+ * The set is refreshed incrementally from the collection and pruned as tokens expire.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TokenRevocationService {
+
+    // Overlap between polls so writes committed slightly out of order are not missed
+    private static final Duration POLL_OVERLAP = Duration.ofSeconds(5);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+
+    // jti -> token expiry (epoch millis)
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+
+    @Value("${jwt.expiration}")
+    private long tokenLifetimeMillis;
+
+    private volatile Instant lastPoll;
+
+    @PostConstruct
+    void init() {
+        lastPoll = Instant.now().minusMillis(tokenLifetimeMillis);
+        refresh();
+    }
+
+    public boolean isRevoked(String tokenId) {
+        return revoked.containsKey(tokenId);
+    }
+
+    public void revoke(String tokenId, String userId, Instant expiresAt) {
+        revokedTokenRepository.save(RevokedToken.builder()
+                .id(tokenId)
+                .userId(userId)
+                .expiresAt(expiresAt)
+                .build());
+        revoked.put(tokenId, expiresAt.toEpochMilli());
+    }
+
+    @Scheduled(fixedDelayString = "${app.auth.revocation-refresh-ms:10000}")
+    public void refresh() {
+        Instant pollStart = Instant.now();
+        try {
+            List<RevokedToken> recent = revokedTokenRepository.findByRevokedAtAfter(lastPoll.minus(POLL_OVERLAP));
+            for (RevokedToken token : recent) {
+                revoked.put(token.getId(), token.getExpiresAt().toEpochMilli());
+            }
+            lastPoll = pollStart;
+        } catch (Exception e) {
+            log.error("Failed to refresh token revocation list: {}", e.getMessage());
+        }
+
+        long now = System.currentTimeMillis();
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+    }
+}
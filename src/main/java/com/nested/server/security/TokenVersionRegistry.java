@@ -0,0 +1,88 @@
+package com.nested.server.security;
+
+import com.nested.server.model.User;
+import com.nested.server.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tiny in-memory table of users whose sessions were invalidated (password change, password reset,
+ * account disabled). Only users that changed within the token lifetime are tracked, so the
+ * JWT filter can validate claims without touching MongoDB.
+ * Local changes apply immediately; changes made on other nodes are picked up by polling.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TokenVersionRegistry {
+
+    // Overlap between polls so writes committed slightly out of order are not missed
+    private static final Duration POLL_OVERLAP = Duration.ofSeconds(5);
+
+    private final UserRepository userRepository;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    @Value("${jwt.expiration}")
+    private long tokenLifetimeMillis;
+
+    private volatile Instant lastPoll;
+
+    @PostConstruct
+    void init() {
+        lastPoll = Instant.now().minusMillis(tokenLifetimeMillis);
+        refresh();
+    }
+
+    /**
+     * True if a token issued with this version is still acceptable for the user
+     */
+    public boolean isCurrent(String userId, int tokenVersion) {
+        Entry entry = entries.get(userId);
+        if (entry == null) {
+            return true;
+        }
+        return entry.enabled && tokenVersion >= entry.tokenVersion;
+    }
+
+    public void record(String userId, int tokenVersion, boolean enabled) {
+        put(userId, tokenVersion, enabled, System.currentTimeMillis());
+    }
+
+    @Scheduled(fixedDelayString = "${app.auth.token-version-refresh-ms:15000}")
+    public void refresh() {
+        Instant pollStart = Instant.now();
+        try {
+            List<User> changed = userRepository.findCredentialChangesSince(lastPoll.minus(POLL_OVERLAP));
+            for (User user : changed) {
+                put(user.getId(), user.getTokenVersion(), user.isEnabled(),
+                        user.getCredentialsChangedAt().toEpochMilli());
+            }
+            lastPoll = pollStart;
+        } catch (Exception e) {
+            log.error("Failed to refresh token version table: {}", e.getMessage());
+        }
+
+        // Tokens issued before this cutoff have expired anyway
+        long cutoff = System.currentTimeMillis() - tokenLifetimeMillis;
+        entries.values().removeIf(entry -> entry.enabled && entry.changedAtMillis < cutoff);
+    }
+
+    private void put(String userId, int tokenVersion, boolean enabled, long changedAtMillis) {
+        entries.merge(userId, new Entry(tokenVersion, enabled, changedAtMillis),
+                (existing, update) -> existing.tokenVersion > update.tokenVersion ? existing : update);
+    }
+
+    private record Entry(int tokenVersion, boolean enabled, long changedAtMillis) {
+    }
+}
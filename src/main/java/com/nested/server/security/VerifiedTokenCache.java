@@ -0,0 +1,76 @@
+package com.nested.server.security;
+
+import io.jsonwebtoken.Claims;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU of recently verified tokens so hot clients skip signature checks.
+ * Entries are keyed by the SHA-256 of the token (raw tokens are never retained)
+ * and are dropped as soon as the token expires.
+ */
+class VerifiedTokenCache {
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private final Map<TokenKey, Entry> entries;
+
+    VerifiedTokenCache(int maxSize) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<TokenKey, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached claims, or null if the token is unknown or has expired
+     */
+    Claims get(TokenKey key, long nowMillis) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAtMillis <= nowMillis) {
+                entries.remove(key);
+                return null;
+            }
+            return entry.claims;
+        }
+    }
+
+    void put(TokenKey key, Claims claims) {
+        if (claims.getExpiration() == null) {
+            return;
+        }
+        Entry entry = new Entry(claims, claims.getExpiration().getTime());
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+    }
+
+    static TokenKey keyOf(String token) {
+        MessageDigest digest = SHA256.get();
+        ByteBuffer hash = ByteBuffer.wrap(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        return new TokenKey(hash.getLong(), hash.getLong(), hash.getLong(), hash.getLong());
+    }
+
+    record TokenKey(long a, long b, long c, long d) {
+    }
+
+    private record Entry(Claims claims, long expiresAtMillis) {
+    }
+}
@@ -8,9 +8,12 @@ import com.nested.server.exception.ResourceNotFoundException;
 import com.nested.server.model.User;
 import com.nested.server.repository.UserRepository;
 import com.nested.server.security.JwtUtil;
+import com.nested.server.security.LoginAttemptLimiter;
+import com.nested.server.security.TokenRevocationService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 @Slf4j
@@ -19,9 +22,12 @@ import org.springframework.stereotype.Service;
 public class AuthService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
+    private final LoginAttemptLimiter loginAttemptLimiter;
+    private final UserSnapshotCache userSnapshotCache;
     private final JwtUtil jwtUtil;
     private final TwoFactorService twoFactorService;
+    private final TokenRevocationService tokenRevocationService;
 
     public AuthResponse register(RegisterRequest request) {
         log.info("Registration attempt for username: {}, email: {}", request.getUsername(), request.getEmail());
@@ -39,7 +45,7 @@ public class AuthService {
         User user = User.builder()
                 .username(request.getUsername())
                 .email(request.getEmail())
-                .password(passwordEncoder.encode(request.getPassword()))
+                .password(passwordHashingService.encode(request.getPassword()))
                 .enabled(true)
                 .karma(1)
                 .build();
@@ -48,7 +54,7 @@ public class AuthService {
         user = userRepository.save(user);
         log.info("User saved successfully with ID: {}, username: {}", user.getId(), user.getUsername());
 
-        String token = jwtUtil.generateToken(user.getUsername());
+        String token = jwtUtil.generateToken(user);
 
         return AuthResponse.builder()
                 .token(token)
@@ -58,10 +64,16 @@ public class AuthService {
                 .build();
     }
 
-    public AuthResponse login(AuthRequest request) {
+    public AuthResponse login(AuthRequest request, String clientIp) {
+        // Refuse before any lookup or hashing if this user or address keeps failing
+        loginAttemptLimiter.checkAllowed(request.getUsername(), clientIp);
+
         // First check if user exists
-        User user = userRepository.findByUsername(request.getUsername())
-                .orElseThrow(() -> new ResourceNotFoundException("User", "username", request.getUsername()));
+        User user = userRepository.findByUsername(request.getUsername()).orElse(null);
+        if (user == null) {
+            loginAttemptLimiter.recordFailure(request.getUsername(), clientIp);
+            throw new ResourceNotFoundException("User", "username", request.getUsername());
+        }
 
         // Check if account is enabled
         if (!user.isEnabled()) {
@@ -69,7 +81,8 @@ public class AuthService {
         }
 
         // Verify password
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+        if (!passwordHashingService.matches(request.getPassword(), user.getPassword())) {
+            loginAttemptLimiter.recordFailure(request.getUsername(), clientIp);
             throw new BadRequestException("Incorrect password");
         }
 
@@ -86,13 +99,18 @@ public class AuthService {
             }
 
             // Verify 2FA code
-            if (!twoFactorService.verifyCode(user.getTwoFactorSecret(), request.getTwoFactorCode())) {
+            if (!twoFactorService.verifyCode(user.getId(), user.getTwoFactorSecret(), request.getTwoFactorCode())) {
+                loginAttemptLimiter.recordFailure(request.getUsername(), clientIp);
                 throw new BadRequestException("Invalid 2FA code");
             }
         }
 
+        loginAttemptLimiter.recordSuccess(request.getUsername());
+        if (passwordHashingService.upgradeEncoding(user.getPassword())) {
+            rehashInBackground(user, request.getPassword());
+        }
         log.info("User logged in: {}", user.getUsername());
-        String token = jwtUtil.generateToken(user.getUsername());
+        String token = jwtUtil.generateToken(user);
 
         return AuthResponse.builder()
                 .token(token)
@@ -101,4 +119,39 @@ public class AuthService {
                 .message("Login successful")
                 .build();
     }
+
+    /**
+     * Store the password again with the current algorithm and cost.
+     * The update is conditional on the old hash so a concurrent password change always wins.
+     */
+    private void rehashInBackground(User user, String rawPassword) {
+        String userId = user.getId();
+        String oldHash = user.getPassword();
+        passwordHashingService.encodeInBackground(rawPassword, newHash -> {
+            if (userRepository.replacePasswordHash(userId, oldHash, newHash) > 0) {
+                userSnapshotCache.evict(userId);
+                log.debug("Upgraded password hash for user: {}", userId);
+            }
+        });
+    }
+
+    /**
+     * Revoke the presented token so it stops working before its natural expiry
+     */
+    public void logout(String token) {
+        if (token == null) {
+            return;
+        }
+        try {
+            Claims claims = jwtUtil.verify(token);
+            if (claims.getId() != null) {
+                tokenRevocationService.revoke(claims.getId(),
+                        claims.get(JwtUtil.CLAIM_USER_ID, String.class),
+                        claims.getExpiration().toInstant());
+            }
+        } catch (JwtException e) {
+            // Expired or invalid tokens are already unusable
+            log.debug("Logout with unusable token: {}", e.getMessage());
+        }
+    }
 }
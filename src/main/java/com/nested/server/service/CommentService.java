@@ -2,6 +2,7 @@ package com.nested.server.service;
 
 import com.nested.server.dto.CommentRequest;
 import com.nested.server.dto.CommentResponse;
+import com.nested.server.dto.CommentTree;
 import com.nested.server.exception.BadRequestException;
 import com.nested.server.exception.ResourceNotFoundException;
 import com.nested.server.exception.UnauthorizedException;
@@ -19,10 +20,7 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 
-import java.time.Duration;
 import java.time.Instant;
-import java.time.ZoneId;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -38,6 +36,7 @@ public class CommentService {
     private final PostService postService;
     private final VoteRepository voteRepository;
     private final UserService userService;
+    private final UserVoteCache userVoteCache;
 
     @Transactional
     public CommentResponse createComment(CommentRequest request, User author) {
@@ -69,6 +68,7 @@ public class CommentService {
                 .parentCommentId(request.getParentCommentId())
                 .depth(depth)
                 .voteCount(1)
+                .ups(1)
                 .createdAt(Instant.now())
                 .build();
 
@@ -88,6 +88,7 @@ public class CommentService {
                 .voteType(Vote.VoteType.UPVOTE)
                 .build();
         voteRepository.save(vote);
+        userVoteCache.onVote(author.getId(), comment.getId(), 1);
 
         return mapToResponse(comment, 1);
     }
@@ -95,7 +96,7 @@ public class CommentService {
     /**
      * Original method - loads all comments (kept for backwards compatibility)
      */
-    public List<CommentResponse> getCommentsByPost(String postId, User currentUser) {
+    public CommentTree getCommentsByPost(String postId, User currentUser) {
         return getCommentsByPostPaginated(postId, currentUser, 0, 50, true);
     }
 
@@ -104,21 +105,22 @@ public class CommentService {
      * - Only loads root comments initially (paginated)
      * - Child comments can be loaded on-demand via getReplies()
      * - Reduces memory usage for posts with many comments
+     * The tree is streamed to the response from the entities (see CommentTree).
      */
-    public List<CommentResponse> getCommentsByPostPaginated(String postId, User currentUser,
+    public CommentTree getCommentsByPostPaginated(String postId, User currentUser,
                                                              int page, int size, boolean includeReplies) {
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "voteCount"));
         List<Comment> rootComments = commentRepository.findRootCommentsByPostId(postId, pageable);
 
         if (rootComments.isEmpty()) {
-            return Collections.emptyList();
+            return CommentTree.EMPTY;
         }
 
         // Get all comment IDs for vote lookup
         List<String> commentIds = new ArrayList<>();
         rootComments.forEach(c -> commentIds.add(c.getId()));
 
-        Map<String, Integer> userVotes = new HashMap<>();
+        Map<String, Integer> userVotes = Map.of();
         Map<String, List<Comment>> childrenMap = new HashMap<>();
 
         if (includeReplies) {
@@ -131,19 +133,17 @@ public class CommentService {
                     childrenMap.computeIfAbsent(comment.getParentCommentId(), k -> new ArrayList<>()).add(comment);
                 }
             }
+            childrenMap.values().forEach(children ->
+                    children.sort((a, b) -> Integer.compare(b.getVoteCount(), a.getVoteCount())));
         }
 
         // Batch load user votes
         if (currentUser != null && !commentIds.isEmpty()) {
-            List<Vote> votes = voteRepository.findByUserIdAndTargetIdIn(currentUser.getId(), commentIds);
-            votes.forEach(v -> userVotes.put(v.getTargetId(), v.getVoteType().getValue()));
+            userVotes = userVoteCache.votesFor(currentUser.getId(), commentIds);
         }
 
-        return rootComments.stream()
-                .map(comment -> includeReplies
-                    ? buildCommentTree(comment, childrenMap, userVotes)
-                    : buildCommentWithReplyCount(comment, userVotes))
-                .collect(Collectors.toList());
+        // Without replies every comment gets an empty list - the client loads them on demand
+        return new CommentTree(rootComments, childrenMap, userVotes);
     }
 
     /**
@@ -156,12 +156,10 @@ public class CommentService {
             return Collections.emptyList();
         }
 
-        Map<String, Integer> userVotes = new HashMap<>();
-        if (currentUser != null) {
-            List<String> replyIds = replies.stream().map(Comment::getId).collect(Collectors.toList());
-            List<Vote> votes = voteRepository.findByUserIdAndTargetIdIn(currentUser.getId(), replyIds);
-            votes.forEach(v -> userVotes.put(v.getTargetId(), v.getVoteType().getValue()));
-        }
+        List<String> replyIds = replies.stream().map(Comment::getId).collect(Collectors.toList());
+        Map<String, Integer> userVotes = currentUser != null
+                ? userVoteCache.votesFor(currentUser.getId(), replyIds)
+                : Map.of();
 
         return replies.stream()
                 .map(comment -> mapToResponse(comment, userVotes.get(comment.getId())))
@@ -175,27 +173,6 @@ public class CommentService {
         return commentRepository.countByPostIdAndParentCommentIdIsNull(postId);
     }
 
-    private CommentResponse buildCommentWithReplyCount(Comment comment, Map<String, Integer> userVotes) {
-        CommentResponse response = mapToResponse(comment, userVotes.get(comment.getId()));
-        // Set empty replies list - client can load on demand
-        response.setReplies(Collections.emptyList());
-        return response;
-    }
-
-    private CommentResponse buildCommentTree(Comment comment, Map<String, List<Comment>> childrenMap, Map<String, Integer> userVotes) {
-        CommentResponse response = mapToResponse(comment, userVotes.get(comment.getId()));
-
-        List<Comment> children = childrenMap.getOrDefault(comment.getId(), Collections.emptyList());
-        children.sort((a, b) -> Integer.compare(b.getVoteCount(), a.getVoteCount()));
-
-        List<CommentResponse> replies = children.stream()
-                .map(child -> buildCommentTree(child, childrenMap, userVotes))
-                .collect(Collectors.toList());
-
-        response.setReplies(replies);
-        return response;
-    }
-
     /**
      * Atomic vote count update using MongoDB $inc operator
      */
@@ -252,36 +229,11 @@ public class CommentService {
                 .parentCommentId(comment.getParentCommentId())
                 .voteCount(comment.getVoteCount())
                 .depth(comment.getDepth())
-                .createdAt(formatDate(comment.getCreatedAt()))
-                .timeAgo(getTimeAgo(comment.getCreatedAt()))
+                .createdAt(TimeFormat.dateTime(comment.getCreatedAt()))
+                .createdAtEpochMs(comment.getCreatedAt().toEpochMilli())
+                .timeAgo(TimeFormat.timeAgo(comment.getCreatedAt()))
                 .deleted(comment.isDeleted())
                 .userVote(userVote)
                 .build();
     }
-
-    private String formatDate(Instant instant) {
-        return DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm")
-                .withZone(ZoneId.systemDefault())
-                .format(instant);
-    }
-
-    private String getTimeAgo(Instant instant) {
-        Duration duration = Duration.between(instant, Instant.now());
-
-        if (duration.toMinutes() < 1) {
-            return "just now";
-        } else if (duration.toMinutes() < 60) {
-            long mins = duration.toMinutes();
-            return mins + (mins == 1 ? " minute ago" : " minutes ago");
-        } else if (duration.toHours() < 24) {
-            long hours = duration.toHours();
-            return hours + (hours == 1 ? " hour ago" : " hours ago");
-        } else if (duration.toDays() < 30) {
-            long days = duration.toDays();
-            return days + (days == 1 ? " day ago" : " days ago");
-        } else {
-            long years = duration.toDays() / 365;
-            return years + (years == 1 ? " year ago" : " years ago");
-        }
-    }
 }
@@ -0,0 +1,21 @@
+package com.nested.server.service;
+
+/**
+ * "Controversial" ranking: the number of votes weighted by how evenly they split. A post with
+ * 500 up and 480 down scores far above one with 10 up and 10 down, and both score above a post
+ * everyone agrees on. Content with only upvotes or only downvotes is not controversial at all.
+ */
+public final class ControversyScore {
+
+    private ControversyScore() {
+    }
+
+    public static double of(int ups, int downs) {
+        if (ups <= 0 || downs <= 0) {
+            return 0;
+        }
+        double magnitude = ups + downs;
+        double balance = (double) Math.min(ups, downs) / Math.max(ups, downs);
+        return magnitude * balance;
+    }
+}
@@ -0,0 +1,160 @@
+package com.nested.server.service;
+
+import com.nested.server.model.Post;
+import com.nested.server.repository.PostRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Per-node materialized copies of the site-wide hot, new and top lists.
+ * Each list is an immutable snapshot swapped atomically: a short refresh interval reloads
+ * them from MongoDB, and votes, new posts and deletions patch them in between so readers
+ * see changes right away. Requests are served from memory without touching the database.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FrontPageSnapshots {
+
+    private static final int SIZE = 100;
+
+    private static final Comparator<Post> BY_HOT = Comparator.comparingDouble(Post::getHotScore).reversed();
+    private static final Comparator<Post> BY_NEW = Comparator.comparing(Post::getCreatedAt).reversed();
+    private static final Comparator<Post> BY_TOP = Comparator.comparingInt(Post::getVoteCount).reversed();
+
+    private final PostRepository postRepository;
+
+    private volatile Snapshot hot;
+    private volatile Snapshot newest;
+    private volatile Snapshot top;
+
+    public Snapshot hot() {
+        Snapshot snapshot = hot;
+        return snapshot != null ? snapshot : (hot = load(postRepository::findTop100ByOrderByHotScoreDesc));
+    }
+
+    public Snapshot newest() {
+        Snapshot snapshot = newest;
+        return snapshot != null ? snapshot : (newest = load(postRepository::findTop100ByOrderByCreatedAtDesc));
+    }
+
+    public Snapshot top() {
+        Snapshot snapshot = top;
+        return snapshot != null ? snapshot : (top = load(postRepository::findTop100ByOrderByVoteCountDesc));
+    }
+
+    @Scheduled(fixedDelayString = "${app.feed.snapshot.refresh-ms:5000}")
+    public void refresh() {
+        try {
+            Snapshot freshHot = load(postRepository::findTop100ByOrderByHotScoreDesc);
+            Snapshot freshNew = load(postRepository::findTop100ByOrderByCreatedAtDesc);
+            Snapshot freshTop = load(postRepository::findTop100ByOrderByVoteCountDesc);
+            synchronized (this) {
+                hot = freshHot;
+                newest = freshNew;
+                top = freshTop;
+            }
+        } catch (Exception e) {
+            log.error("Failed to refresh front page snapshots: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * A new post goes to the head of "new" and is ranked into "hot"; it cannot be in "top" yet
+     */
+    public synchronized void onPostCreated(Post post) {
+        // Hold the same list view the refresh query loads, not the full body
+        List<String> imageUrls = post.getImageUrls();
+        Post listView = post.toBuilder()
+                .content(null)
+                .imageUrls(imageUrls != null && imageUrls.size() > 1 ? List.of(imageUrls.get(0)) : imageUrls)
+                .build();
+        if (newest != null) {
+            newest = newest.insert(listView, BY_NEW);
+        }
+        if (hot != null) {
+            hot = hot.insert(listView, BY_HOT);
+        }
+    }
+
+    /**
+     * Patch the vote count and hot score of a post already in a snapshot.
+     * Posts climbing in from outside the lists are picked up by the next refresh.
+     */
+    public synchronized void onVote(String postId, int voteCount, double hotScore) {
+        if (hot != null) {
+            hot = hot.patch(postId, voteCount, hotScore, BY_HOT);
+        }
+        if (newest != null) {
+            newest = newest.patch(postId, voteCount, hotScore, BY_NEW);
+        }
+        if (top != null) {
+            top = top.patch(postId, voteCount, hotScore, BY_TOP);
+        }
+    }
+
+    public synchronized void onPostDeleted(String postId) {
+        if (hot != null) {
+            hot = hot.remove(postId);
+        }
+        if (newest != null) {
+            newest = newest.remove(postId);
+        }
+        if (top != null) {
+            top = top.remove(postId);
+        }
+    }
+
+    private static Snapshot load(Supplier<List<Post>> query) {
+        return new Snapshot(List.copyOf(query.get()));
+    }
+
+    /**
+     * Immutable list of posts, streamed straight to the response by PostFeed
+     */
+    public static final class Snapshot {
+        private final List<Post> posts;
+
+        private Snapshot(List<Post> posts) {
+            this.posts = posts;
+        }
+
+        public List<Post> posts() {
+            return posts;
+        }
+
+        private Snapshot insert(Post post, Comparator<Post> order) {
+            List<Post> updated = new ArrayList<>(posts.size() + 1);
+            updated.addAll(posts);
+            updated.add(post);
+            updated.sort(order);
+            return new Snapshot(List.copyOf(updated.subList(0, Math.min(SIZE, updated.size()))));
+        }
+
+        private Snapshot patch(String postId, int voteCount, double hotScore, Comparator<Post> order) {
+            for (int i = 0; i < posts.size(); i++) {
+                Post post = posts.get(i);
+                if (post.getId().equals(postId)) {
+                    List<Post> updated = new ArrayList<>(posts);
+                    // Copy rather than mutate - readers may be serializing the current snapshot
+                    updated.set(i, post.toBuilder().voteCount(voteCount).hotScore(hotScore).build());
+                    updated.sort(order);
+                    return new Snapshot(List.copyOf(updated));
+                }
+            }
+            return this;
+        }
+
+        private Snapshot remove(String postId) {
+            List<Post> updated = new ArrayList<>(posts);
+            return updated.removeIf(post -> post.getId().equals(postId)) ? new Snapshot(List.copyOf(updated)) : this;
+        }
+    }
+}
@@ -0,0 +1,352 @@
+package com.nested.server.service;
+
+import com.nested.server.model.FeedSort;
+import com.nested.server.model.Post;
+import com.nested.server.model.Subs;
+import com.nested.server.model.User;
+import com.nested.server.repository.PostRepository;
+import com.nested.server.repository.SubsRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optional fan-out-on-write home timelines (app.feed.timelines.enabled).
+ * Users who read their home feed get a capped, chronological timeline of post ids. New posts are
+ * pushed into the timelines of those users by a small worker pool that drains events in batches.
+ * Subs with very many subscribers are not fanned out; their posts are pulled and merged in at
+ * read time instead. Timelines of users who stop reading are dropped after the activity window.
+ */
+@Slf4j
+@Component
+public class HomeTimelines {
+
+    private final PostRepository postRepository;
+    private final SubsRepository subsRepository;
+    private final ThreadPoolTaskExecutor fanoutExecutor;
+    private final MeterRegistry meterRegistry;
+
+    // userId -> timeline
+    private final Map<String, Timeline> timelines = new ConcurrentHashMap<>();
+    // subId -> users whose timeline is fed by pushes from that sub
+    private final Map<String, Set<String>> followers = new ConcurrentHashMap<>();
+
+    private BlockingQueue<FanoutEvent> queue;
+    private Timer fanoutLag;
+    private Counter dropped;
+
+    @Value("${app.feed.timelines.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.feed.timelines.size:1000}")
+    private int capacity;
+
+    @Value("${app.feed.timelines.max-users:10000}")
+    private int maxUsers;
+
+    @Value("${app.feed.timelines.active-window-ms:1800000}")
+    private long activeWindowMillis;
+
+    @Value("${app.feed.timelines.huge-sub-subscribers:10000}")
+    private int hugeSubSubscribers;
+
+    @Value("${app.feed.timelines.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${app.feed.timelines.batch-size:100}")
+    private int batchSize;
+
+    public HomeTimelines(PostRepository postRepository,
+                         SubsRepository subsRepository,
+                         @Qualifier("timelineFanoutExecutor") ThreadPoolTaskExecutor fanoutExecutor,
+                         MeterRegistry meterRegistry) {
+        this.postRepository = postRepository;
+        this.subsRepository = subsRepository;
+        this.fanoutExecutor = fanoutExecutor;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void init() {
+        if (!enabled) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        fanoutLag = Timer.builder("feed.timeline.fanout.lag")
+                .description("Time from post creation to its fan-out being applied")
+                .register(meterRegistry);
+        dropped = Counter.builder("feed.timeline.fanout.dropped")
+                .description("Fan-out events dropped because the queue was full")
+                .register(meterRegistry);
+        Gauge.builder("feed.timeline.fanout.queue", queue, BlockingQueue::size).register(meterRegistry);
+        Gauge.builder("feed.timeline.users", timelines, Map::size).register(meterRegistry);
+
+        for (int i = 0; i < fanoutExecutor.getCorePoolSize(); i++) {
+            fanoutExecutor.execute(this::drainLoop);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Newest-first post ids of the user's home timeline, building it on first use or after
+     * the user's subscriptions changed. Returns null when timelines are disabled or hold fewer
+     * posts than asked for, so the caller reads the feed elsewhere instead of ending it early.
+     */
+    public List<String> read(User user, int limit) {
+        if (!enabled || limit > capacity) {
+            return null;
+        }
+        Set<String> subs = new HashSet<>(user.getSubscribedSubs());
+        Timeline timeline = timelines.get(user.getId());
+        if (timeline == null || !timeline.subs.equals(subs)) {
+            timeline = build(user.getId(), subs);
+        }
+        timeline.lastReadMillis = System.currentTimeMillis();
+        if (!timeline.loaded) {
+            // Another reader is still loading it
+            return null;
+        }
+
+        Newest pushed = timeline.newest(limit);
+        if (timeline.pullSubs.isEmpty()) {
+            return pushed.ids;
+        }
+        // Hybrid path: merge in the newest posts of huge subs, which are never fanned out
+        List<Post> pulled = postRepository.findRankingBySubIdIn(timeline.pullSubs,
+                PageRequest.of(0, limit, FeedSort.NEW.toSort()));
+        return mergeNewest(pushed, pulled, limit);
+    }
+
+    /**
+     * Queue a new post for fan-out. Posts in huge subs are served by the pull path instead.
+     */
+    public void onPostCreated(Post post, int subscriberCount) {
+        if (!enabled || subscriberCount >= hugeSubSubscribers || !followers.containsKey(post.getSubId())) {
+            return;
+        }
+        FanoutEvent event = new FanoutEvent(post.getId(), post.getSubId(), post.getCreatedAt().toEpochMilli(), System.nanoTime());
+        if (!queue.offer(event)) {
+            dropped.increment();
+            // Those timelines would silently miss the post - drop them so they rebuild on next read
+            Set<String> users = followers.get(post.getSubId());
+            if (users != null) {
+                users.forEach(this::remove);
+            }
+        }
+    }
+
+    /**
+     * Drop timelines that have not been read within the activity window
+     */
+    @Scheduled(fixedDelayString = "${app.feed.timelines.cleanup-ms:60000}")
+    public void evictInactive() {
+        if (!enabled) {
+            return;
+        }
+        long cutoff = System.currentTimeMillis() - activeWindowMillis;
+        timelines.forEach((userId, timeline) -> {
+            if (timeline.lastReadMillis < cutoff) {
+                remove(userId);
+            }
+        });
+    }
+
+    private Timeline build(String userId, Set<String> subs) {
+        List<String> subIds = new ArrayList<>(subs);
+        List<String> pullSubs = new ArrayList<>();
+        for (Subs sub : subsRepository.findIdsByIdInAndSubscriberCountAtLeast(subIds, hugeSubSubscribers)) {
+            pullSubs.add(sub.getId());
+        }
+        List<String> pushSubs = new ArrayList<>(subIds);
+        pushSubs.removeAll(pullSubs);
+
+        // Registered before loading, so posts created during the query are fanned out to it;
+        // a post that arrives both ways is de-duplicated by push
+        Timeline timeline = new Timeline(subs, pullSubs, capacity);
+        if (timelines.size() >= maxUsers) {
+            evictLeastRecentlyRead();
+        }
+        remove(userId);
+        timelines.put(userId, timeline);
+        for (String subId : pushSubs) {
+            followers.computeIfAbsent(subId, id -> ConcurrentHashMap.newKeySet()).add(userId);
+        }
+
+        if (!pushSubs.isEmpty()) {
+            List<Post> newest;
+            try {
+                newest = postRepository.findRankingBySubIdIn(pushSubs,
+                        PageRequest.of(0, capacity, FeedSort.NEW.toSort()));
+            } catch (RuntimeException e) {
+                remove(userId);
+                throw e;
+            }
+            // Oldest first so each push lands at the head
+            for (int i = newest.size() - 1; i >= 0; i--) {
+                Post post = newest.get(i);
+                timeline.push(post.getId(), post.getCreatedAt().toEpochMilli());
+            }
+        }
+        timeline.loaded = true;
+        return timeline;
+    }
+
+    private void remove(String userId) {
+        Timeline removed = timelines.remove(userId);
+        if (removed == null) {
+            return;
+        }
+        for (String subId : removed.subs) {
+            followers.computeIfPresent(subId, (id, users) -> {
+                users.remove(userId);
+                return users.isEmpty() ? null : users;
+            });
+        }
+    }
+
+    private void evictLeastRecentlyRead() {
+        timelines.entrySet().stream()
+                .min((a, b) -> Long.compare(a.getValue().lastReadMillis, b.getValue().lastReadMillis))
+                .ifPresent(oldest -> remove(oldest.getKey()));
+    }
+
+    /**
+     * Worker: block for one event, then take whatever else is queued up to the batch size
+     * and apply the batch grouped by sub
+     */
+    private void drainLoop() {
+        List<FanoutEvent> batch = new ArrayList<>(batchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(queue.take());
+                queue.drainTo(batch, batchSize - 1);
+                applyBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.error("Timeline fan-out failed: {}", e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void applyBatch(List<FanoutEvent> batch) {
+        Map<String, List<FanoutEvent>> bySub = new HashMap<>();
+        for (FanoutEvent event : batch) {
+            bySub.computeIfAbsent(event.subId, id -> new ArrayList<>()).add(event);
+        }
+        bySub.forEach((subId, events) -> {
+            Set<String> users = followers.get(subId);
+            if (users == null) {
+                return;
+            }
+            for (String userId : users) {
+                Timeline timeline = timelines.get(userId);
+                if (timeline != null) {
+                    for (FanoutEvent event : events) {
+                        timeline.push(event.postId, event.createdAtMillis);
+                    }
+                }
+            }
+        });
+        long now = System.nanoTime();
+        for (FanoutEvent event : batch) {
+            fanoutLag.record(now - event.enqueuedNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static List<String> mergeNewest(Newest pushed, List<Post> pulled, int limit) {
+        List<String> merged = new ArrayList<>(Math.min(limit, pushed.ids.size() + pulled.size()));
+        int i = 0;
+        int j = 0;
+        while (merged.size() < limit && (i < pushed.ids.size() || j < pulled.size())) {
+            boolean takePushed = j >= pulled.size()
+                    || (i < pushed.ids.size() && pushed.times[i] >= pulled.get(j).getCreatedAt().toEpochMilli());
+            merged.add(takePushed ? pushed.ids.get(i++) : pulled.get(j++).getId());
+        }
+        return merged;
+    }
+
+    private record FanoutEvent(String postId, String subId, long createdAtMillis, long enqueuedNanos) {
+    }
+
+    /**
+     * Newest ids of a timeline with their created-at times, copied under one lock
+     */
+    private record Newest(List<String> ids, long[] times) {
+    }
+
+    /**
+     * Capped newest-first list of (post id, created-at) held in parallel arrays
+     */
+    private static final class Timeline {
+        private final Set<String> subs;
+        private final List<String> pullSubs;
+        private final String[] ids;
+        private final long[] times;
+        private int size;
+        private volatile long lastReadMillis = System.currentTimeMillis();
+        private volatile boolean loaded;
+
+        private Timeline(Set<String> subs, List<String> pullSubs, int capacity) {
+            this.subs = subs;
+            this.pullSubs = pullSubs;
+            this.ids = new String[capacity];
+            this.times = new long[capacity];
+        }
+
+        /**
+         * Insert in time order (posts normally arrive newest, so this is usually at index 0)
+         */
+        synchronized void push(String id, long createdAtMillis) {
+            int at = 0;
+            while (at < size && times[at] > createdAtMillis) {
+                at++;
+            }
+            if (at >= ids.length) {
+                return;
+            }
+            for (int k = at; k < size && times[k] == createdAtMillis; k++) {
+                if (ids[k].equals(id)) {
+                    return;
+                }
+            }
+            int moved = Math.min(size, ids.length - 1) - at;
+            System.arraycopy(ids, at, ids, at + 1, moved);
+            System.arraycopy(times, at, times, at + 1, moved);
+            ids[at] = id;
+            times[at] = createdAtMillis;
+            size = Math.min(size + 1, ids.length);
+        }
+
+        synchronized Newest newest(int limit) {
+            int n = Math.min(limit, size);
+            return new Newest(new ArrayList<>(Arrays.asList(ids).subList(0, n)), Arrays.copyOf(times, n));
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.nested.server.service;
+
+import java.time.Instant;
+
+/**
+ * Reddit-style "hot" ranking: log10 of the net score plus a term that grows linearly with
+ * submission time. Because the time term is anchored to a fixed epoch rather than to "now",
+ * a post's score only changes when its votes or comments change - newer posts simply start
+ * higher, so the ordering decays without ever rewriting old scores.
+ */
+public final class HotScore {
+
+    // Reddit's epoch (2005-12-08); any fixed instant works, it only shifts every score equally
+    private static final long EPOCH_SECONDS = 1134028003L;
+    // A post 12.5 hours newer needs 10x the score to rank equally
+    private static final double SECONDS_PER_ORDER = 45000d;
+    // Discussion counts for something, but a comment is worth less than a vote
+    private static final double COMMENT_WEIGHT = 0.5d;
+
+    private HotScore() {
+    }
+
+    public static double of(int voteCount, int commentCount, Instant createdAt) {
+        double score = voteCount + COMMENT_WEIGHT * commentCount;
+        double order = Math.log10(Math.max(Math.abs(score), 1));
+        double sign = Math.signum(score);
+        double seconds = (createdAt != null ? createdAt.getEpochSecond() : Instant.now().getEpochSecond()) - EPOCH_SECONDS;
+        return sign * order + seconds / SECONDS_PER_ORDER;
+    }
+}
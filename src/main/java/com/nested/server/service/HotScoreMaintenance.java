@@ -0,0 +1,138 @@
+package com.nested.server.service;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.nested.server.model.Comment;
+import com.nested.server.model.Post;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Keeps stored hot and controversy scores correct. Event-driven updates can race (two votes
+ * computing from slightly different counts), so recent posts and comments are recomputed
+ * periodically; older ones no longer receive enough activity to matter. Posts created before
+ * the hot score existed are backfilled once at startup (see VoteCountBackfill for controversy).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class HotScoreMaintenance {
+
+    private static final int BATCH_SIZE = 1000;
+    // Ignore float noise when comparing stored and recomputed scores
+    private static final double EPSILON = 1e-9;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${app.feed.hot.reconcile-window-hours:48}")
+    private long reconcileWindowHours;
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillMissing() {
+        Query query = new Query(Criteria.where("hotScore").exists(false));
+        int updated = recompute(query);
+        if (updated > 0) {
+            log.info("Backfilled hot score for {} posts", updated);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.feed.hot.reconcile-ms:300000}",
+            initialDelayString = "${app.feed.hot.reconcile-ms:300000}")
+    public void reconcileRecent() {
+        Instant since = Instant.now().minus(Duration.ofHours(reconcileWindowHours));
+        Query recent = new Query(Criteria.where("createdAt").gte(since));
+        int posts = recompute(recent);
+        int comments = recomputeComments(recent);
+        log.debug("Score reconcile corrected {} posts and {} comments", posts, comments);
+    }
+
+    /**
+     * Recompute in id-ordered batches, writing only the scores that changed
+     */
+    private int recompute(Query base) {
+        int updated = 0;
+        String lastId = null;
+        while (true) {
+            Query query = Query.of(base).limit(BATCH_SIZE).with(Sort.by("_id"));
+            if (lastId != null) {
+                // The mapper converts the id string back to an ObjectId
+                query.addCriteria(Criteria.where("_id").gt(lastId));
+            }
+            query.fields().include("voteCount", "commentCount", "createdAt", "hotScore", "ups", "downs", "controversyScore");
+            List<Post> batch = mongoTemplate.find(query, Post.class);
+            if (batch.isEmpty()) {
+                return updated;
+            }
+
+            BulkOperations bulk = null;
+            for (Post post : batch) {
+                double score = HotScore.of(post.getVoteCount(), post.getCommentCount(), post.getCreatedAt());
+                double controversy = ControversyScore.of(post.getUps(), post.getDowns());
+                if (Math.abs(score - post.getHotScore()) > EPSILON
+                        || Math.abs(controversy - post.getControversyScore()) > EPSILON) {
+                    if (bulk == null) {
+                        bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Post.class);
+                    }
+                    bulk.updateOne(new Query(Criteria.where("_id").is(post.getId())),
+                            new Update().set("hotScore", score).set("controversyScore", controversy));
+                }
+            }
+            if (bulk != null) {
+                BulkWriteResult result = bulk.execute();
+                updated += result.getModifiedCount();
+            }
+            lastId = batch.get(batch.size() - 1).getId();
+        }
+    }
+
+    /**
+     * Same batching as recompute, for comment controversy scores
+     */
+    private int recomputeComments(Query base) {
+        int updated = 0;
+        String lastId = null;
+        while (true) {
+            Query query = Query.of(base).limit(BATCH_SIZE).with(Sort.by("_id"));
+            if (lastId != null) {
+                query.addCriteria(Criteria.where("_id").gt(lastId));
+            }
+            query.fields().include("ups", "downs", "controversyScore");
+            List<Comment> batch = mongoTemplate.find(query, Comment.class);
+            if (batch.isEmpty()) {
+                return updated;
+            }
+
+            BulkOperations bulk = null;
+            for (Comment comment : batch) {
+                double controversy = ControversyScore.of(comment.getUps(), comment.getDowns());
+                if (Math.abs(controversy - comment.getControversyScore()) > EPSILON) {
+                    if (bulk == null) {
+                        bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Comment.class);
+                    }
+                    bulk.updateOne(new Query(Criteria.where("_id").is(comment.getId())),
+                            new Update().set("controversyScore", controversy));
+                }
+            }
+            if (bulk != null) {
+                updated += bulk.execute().getModifiedCount();
+            }
+            lastId = batch.get(batch.size() - 1).getId();
+        }
+    }
+}
@@ -16,8 +16,6 @@ import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
-import java.time.ZoneId;
-import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -33,6 +31,7 @@ public class ModerationService {
     private final PostRepository postRepository;
     private final CommentRepository commentRepository;
     private final UserService userService;
+    private final PinnedPosts pinnedPosts;
 
     // ==================== REPORT METHODS ====================
 
@@ -247,7 +246,12 @@ public class ModerationService {
         post.setRemovedById(moderator.getId());
         post.setRemovedByUsername(moderator.getUsername());
         post.setRemovalReason(reason);
+        // A removed post gives up its pin, so approving it later cannot exceed the pin limit
+        post.setPinned(false);
+        post.setPinnedAt(null);
+        post.setPinnedById(null);
         postRepository.save(post);
+        pinnedPosts.evict(post.getSubName());
     }
 
     public void approvePost(String postId, User moderator) {
@@ -261,11 +265,20 @@ public class ModerationService {
             throw new UnauthorizedException("Only moderators can approve posts");
         }
 
+        // Posts removed before removal unpinned them may still be pinned; drop the pin if the
+        // sub has filled its pin slots since (removed posts do not count toward them)
+        if (post.isRemoved() && post.isPinned()
+                && postRepository.countPinnedBySubId(post.getSubId()) >= PinnedPosts.MAX_PER_SUB) {
+            post.setPinned(false);
+            post.setPinnedAt(null);
+            post.setPinnedById(null);
+        }
         post.setRemoved(false);
         post.setRemovedById(null);
         post.setRemovedByUsername(null);
         post.setRemovalReason(null);
         postRepository.save(post);
+        pinnedPosts.evict(post.getSubName());
     }
 
     public void removeComment(String commentId, String reason, User moderator) {
@@ -323,12 +336,18 @@ public class ModerationService {
             throw new UnauthorizedException("Only moderators can pin posts");
         }
 
-        // Check how many posts are already pinned in this sub (limit to 2)
-        // We'll need to add a query for this
+        if (post.isPinned()) {
+            return;
+        }
+        if (postRepository.countPinnedBySubId(post.getSubId()) >= PinnedPosts.MAX_PER_SUB) {
+            throw new BadRequestException("A community can have at most " + PinnedPosts.MAX_PER_SUB + " pinned posts");
+        }
+
         post.setPinned(true);
         post.setPinnedAt(Instant.now());
         post.setPinnedById(moderator.getId());
         postRepository.save(post);
+        pinnedPosts.evict(post.getSubName());
     }
 
     public void unpinPost(String postId, User moderator) {
@@ -346,6 +365,7 @@ public class ModerationService {
         post.setPinnedAt(null);
         post.setPinnedById(null);
         postRepository.save(post);
+        pinnedPosts.evict(post.getSubName());
     }
 
     public void lockPost(String postId, User moderator) {
@@ -392,9 +412,9 @@ public class ModerationService {
                 .subName(report.getSubName())
                 .status(report.getStatus())
                 .reviewedByUsername(report.getReviewedByUsername())
-                .reviewedAt(report.getReviewedAt() != null ? formatDate(report.getReviewedAt()) : null)
+                .reviewedAt(report.getReviewedAt() != null ? TimeFormat.dateTime(report.getReviewedAt()) : null)
                 .modNote(report.getModNote())
-                .createdAt(formatDate(report.getCreatedAt()))
+                .createdAt(TimeFormat.dateTime(report.getCreatedAt()))
                 .build();
     }
 
@@ -428,15 +448,9 @@ public class ModerationService {
                 .bannedByUsername(ban.getBannedByUsername())
                 .reason(ban.getReason())
                 .permanent(ban.isPermanent())
-                .expiresAt(ban.getExpiresAt() != null ? formatDate(ban.getExpiresAt()) : null)
-                .createdAt(formatDate(ban.getCreatedAt()))
+                .expiresAt(ban.getExpiresAt() != null ? TimeFormat.dateTime(ban.getExpiresAt()) : null)
+                .createdAt(TimeFormat.dateTime(ban.getCreatedAt()))
                 .active(ban.isActive())
                 .build();
     }
-
-    private String formatDate(Instant instant) {
-        return DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm")
-                .withZone(ZoneId.systemDefault())
-                .format(instant);
-    }
 }
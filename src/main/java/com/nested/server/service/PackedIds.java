@@ -0,0 +1,58 @@
+package com.nested.server.service;
+
+import org.bson.types.ObjectId;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Post id lists held in memory as 12-byte ObjectIds (3 ints each) instead of 24-character
+ * strings, about a fifth of the heap per id
+ */
+final class PackedIds {
+
+    private PackedIds() {
+    }
+
+    static int[] pack(List<String> ids) {
+        int[] packed = new int[ids.size() * 3];
+        int n = 0;
+        for (String id : ids) {
+            // Post ids are generated ObjectIds; anything else cannot be packed and is left out
+            if (!ObjectId.isValid(id)) {
+                continue;
+            }
+            ByteBuffer bytes = ByteBuffer.wrap(new ObjectId(id).toByteArray());
+            packed[n++] = bytes.getInt();
+            packed[n++] = bytes.getInt();
+            packed[n++] = bytes.getInt();
+        }
+        return n == packed.length ? packed : Arrays.copyOf(packed, n);
+    }
+
+    static int size(int[] packed) {
+        return packed.length / 3;
+    }
+
+    static String unpack(int[] packed, int index) {
+        ByteBuffer bytes = ByteBuffer.allocate(12)
+                .putInt(packed[index * 3])
+                .putInt(packed[index * 3 + 1])
+                .putInt(packed[index * 3 + 2]);
+        return new ObjectId(bytes.array()).toHexString();
+    }
+
+    /**
+     * The first limit ids, unpacked
+     */
+    static List<String> head(int[] packed, int limit) {
+        int n = Math.min(limit, size(packed));
+        List<String> ids = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            ids.add(unpack(packed, i));
+        }
+        return ids;
+    }
+}
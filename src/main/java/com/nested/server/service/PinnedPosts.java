@@ -0,0 +1,68 @@
+package com.nested.server.service;
+
+import com.nested.server.model.Post;
+import com.nested.server.repository.PostRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pinned posts per sub, served ahead of every sort on a sub's first page. Most subs have no
+ * pinned posts, so the (usually empty) list is cached by sub name and the feed costs no extra
+ * query. ModerationService evicts a sub on pin, unpin, remove and approve; entries also expire
+ * after ttl-ms so vote counts on pinned posts do not go stale.
+ */
+@Component
+@RequiredArgsConstructor
+public class PinnedPosts {
+
+    public static final int MAX_PER_SUB = 2;
+
+    private final PostRepository postRepository;
+    private final SubNameIndex subNameIndex;
+
+    // lower-cased sub name -> pinned posts
+    private final Map<String, Entry> bySub = new ConcurrentHashMap<>();
+
+    @Value("${app.feed.pinned.ttl-ms:60000}")
+    private long ttlMillis;
+
+    @Value("${app.feed.pinned.max-subs:10000}")
+    private int maxSubs;
+
+    /**
+     * Pinned posts of the sub, newest pin first; empty for unknown subs
+     */
+    public List<Post> pinnedIn(String subName) {
+        String key = subName.toLowerCase(Locale.ROOT);
+        long now = System.currentTimeMillis();
+        Entry entry = bySub.get(key);
+        if (entry != null && entry.loadedAtMillis + ttlMillis > now) {
+            return entry.posts;
+        }
+
+        List<Post> posts = subNameIndex.subIdOf(subName)
+                .map(postRepository::findPinnedBySubId)
+                .map(List::copyOf)
+                .orElse(List.of());
+        if (bySub.size() >= maxSubs) {
+            bySub.clear();
+        }
+        bySub.put(key, new Entry(posts, now));
+        return posts;
+    }
+
+    public void evict(String subName) {
+        if (subName != null) {
+            bySub.remove(subName.toLowerCase(Locale.ROOT));
+        }
+    }
+
+    private record Entry(List<Post> posts, long loadedAtMillis) {
+    }
+}
@@ -0,0 +1,29 @@
+package com.nested.server.service;
+
+/**
+ * Short plain-text excerpt of a post body, stored on the post so feeds can skip loading the
+ * full content. Whitespace is collapsed and the text is cut at a word boundary.
+ */
+public final class PostPreview {
+
+    public static final int MAX_LENGTH = 280;
+
+    private PostPreview() {
+    }
+
+    public static String of(String content) {
+        if (content == null || content.isBlank()) {
+            return null;
+        }
+        String text = content.strip().replaceAll("\\s+", " ");
+        if (text.length() <= MAX_LENGTH) {
+            return text;
+        }
+        int cut = text.lastIndexOf(' ', MAX_LENGTH - 1);
+        // No usable word boundary (e.g. one long URL) - cut mid-word
+        if (cut < MAX_LENGTH / 2) {
+            cut = MAX_LENGTH - 1;
+        }
+        return text.substring(0, cut).stripTrailing() + "…";
+    }
+}
@@ -0,0 +1,62 @@
+package com.nested.server.service;
+
+import com.nested.server.model.Post;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Stores a preview on posts created before feeds stopped loading the full body.
+ * Runs once at startup; new and edited posts get their preview from PostService.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PostPreviewBackfill {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillMissing() {
+        Criteria missing = Criteria.where("preview").exists(false)
+                .and("content").exists(true).nin(null, "");
+        int updated = 0;
+        String lastId = null;
+        while (true) {
+            Query query = new Query(missing).limit(BATCH_SIZE).with(Sort.by("_id"));
+            if (lastId != null) {
+                query.addCriteria(Criteria.where("_id").gt(lastId));
+            }
+            query.fields().include("content");
+            List<Post> batch = mongoTemplate.find(query, Post.class);
+            if (batch.isEmpty()) {
+                break;
+            }
+
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Post.class);
+            for (Post post : batch) {
+                bulk.updateOne(new Query(Criteria.where("_id").is(post.getId())),
+                        new Update().set("preview", PostPreview.of(post.getContent())));
+            }
+            updated += bulk.execute().getModifiedCount();
+            lastId = batch.get(batch.size() - 1).getId();
+        }
+        if (updated > 0) {
+            log.info("Backfilled preview for {} posts", updated);
+        }
+    }
+}
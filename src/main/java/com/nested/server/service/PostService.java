@@ -1,31 +1,47 @@
 package com.nested.server.service;
 
+import com.nested.server.dto.FeedCursor;
+import com.nested.server.dto.FeedPage;
+import com.nested.server.dto.PostFeed;
 import com.nested.server.dto.PostRequest;
 import com.nested.server.dto.PostResponse;
+import com.nested.server.dto.RankedFeedPage;
+import com.nested.server.exception.BadRequestException;
 import com.nested.server.exception.ResourceNotFoundException;
 import com.nested.server.exception.UnauthorizedException;
+import com.nested.server.model.FeedSort;
 import com.nested.server.model.Post;
+import com.nested.server.model.SavedPost;
 import com.nested.server.model.Subs;
+import com.nested.server.model.TopWindow;
 import com.nested.server.model.User;
 import com.nested.server.model.Vote;
 import com.nested.server.repository.PostRepository;
 import com.nested.server.repository.VoteRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.CriteriaDefinition;
+import org.springframework.data.mongodb.core.query.TextCriteria;
 import org.springframework.stereotype.Service;
 
-import java.time.Duration;
 import java.time.Instant;
-import java.time.ZoneId;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.IntFunction;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -33,9 +49,27 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class PostService {
 
+    private static final int MAX_FEED_PAGE_SIZE = 100;
+    private static final int RANKED_SNAPSHOT_DEPTH = 1000;
+    // Extra reads allowed to refill a cursor page after dropping posts the reader has hidden
+    private static final int MAX_HIDDEN_BACKFILL_READS = 3;
+    private static final int FRONT_PAGE_SIZE = 100;
+    // Windowed top and rising rankings end at the snapshot depth - there is no deeper paged query
+    private static final Function<Pageable, Slice<Post>> NO_DEEPER_PAGES = pageable -> new SliceImpl<>(List.of());
+
     private final PostRepository postRepository;
     private final SubService subService;
     private final VoteRepository voteRepository;
+    private final FrontPageSnapshots frontPageSnapshots;
+    private final RankedFeedSnapshots rankedFeedSnapshots;
+    private final SubFeedIndex subFeedIndex;
+    private final HomeTimelines homeTimelines;
+    private final UserVoteCache userVoteCache;
+    private final SavedPostService savedPostService;
+    private final PinnedPosts pinnedPosts;
+    private final TopWindowRankings topWindowRankings;
+    private final RisingPosts risingPosts;
+    private final SubNameIndex subNameIndex;
 
     public PostResponse createPost(PostRequest request, User author) {
         Subs subs = subService.findByName(request.getSubName())
@@ -44,6 +78,7 @@ public class PostService {
         Post post = Post.builder()
                 .title(request.getTitle())
                 .content(request.getContent())
+                .preview(PostPreview.of(request.getContent()))
                 .url(request.getUrl())
                 .imageUrls(request.getImageUrls() != null ? request.getImageUrls() : new java.util.ArrayList<>())
                 .postType(request.getPostType())
@@ -55,8 +90,10 @@ public class PostService {
                 .nsfw(request.isNsfw())
                 .spoiler(request.isSpoiler())
                 .voteCount(1)
+                .ups(1)
                 .createdAt(Instant.now())
                 .build();
+        post.setHotScore(HotScore.of(post.getVoteCount(), post.getCommentCount(), post.getCreatedAt()));
 
         post = postRepository.save(post);
 
@@ -68,6 +105,10 @@ public class PostService {
                 .voteType(Vote.VoteType.UPVOTE)
                 .build();
         voteRepository.save(vote);
+        userVoteCache.onVote(author.getId(), post.getId(), 1);
+        frontPageSnapshots.onPostCreated(post);
+        subFeedIndex.onPostCreated(post);
+        homeTimelines.onPostCreated(post, subs.getSubscriberCount());
 
         return mapToResponse(post, 1);
     }
@@ -76,107 +117,422 @@ public class PostService {
         return postRepository.findById(id);
     }
 
-    public List<PostResponse> getHomeFeed(User user, String sort, int page, int size) {
-        Pageable pageable = createPageable(sort, page, size);
-        Page<Post> posts;
+    /**
+     * Page-based home feed. Pages are cut from a ranked snapshot identified by feedToken, so the
+     * ranking cannot shift under a reader who is paging through it.
+     */
+    public RankedFeedPage getHomeFeed(User user, String sort, String t, int page, int size, String feedToken) {
+        boolean subscribed = user != null && !user.getSubscribedSubs().isEmpty();
+        TopWindow window = topWindow(sort, t);
+        String scope = "home:" + (subscribed ? user.getId() : "all") + ":" + sort.toLowerCase() + ":" + window.key();
+
+        if (isRising(sort)) {
+            return rankedPage(scope, sort, page, size, feedToken, user,
+                    limit -> {
+                        if (subscribed) {
+                            List<String> ids = risingPosts.subs(user.getSubscribedSubs(), limit);
+                            if (!ids.isEmpty()) {
+                                return ids;
+                            }
+                        }
+                        return risingPosts.site(limit);
+                    },
+                    NO_DEEPER_PAGES);
+        }
+        if (window.isBounded()) {
+            return rankedPage(scope, sort, page, size, feedToken, user,
+                    limit -> {
+                        if (subscribed) {
+                            List<String> ids = idsOf(postRepository.findIdsBySubIdInCreatedSince(
+                                    user.getSubscribedSubs(), window.since(Instant.now()), createPageable(sort, 0, limit)));
+                            if (!ids.isEmpty()) {
+                                return ids;
+                            }
+                        }
+                        return topWindowRankings.site(window, limit);
+                    },
+                    NO_DEEPER_PAGES);
+        }
 
-        if (user != null && !user.getSubscribedSubs().isEmpty()) {
-            posts = postRepository.findBySubIdIn(user.getSubscribedSubs(), pageable);
-            // Fall back to all posts if subscribed feed is empty
-            if (posts.isEmpty()) {
-                posts = postRepository.findAll(pageable);
+        return rankedPage(scope, sort, page, size, feedToken, user,
+                limit -> {
+                    if (subscribed) {
+                        FeedSort feedSort = FeedSort.from(sort);
+                        // Chronological feeds come from the fanned-out timeline when enabled
+                        List<String> ids = feedSort == FeedSort.NEW ? homeTimelines.read(user, limit) : null;
+                        if (ids == null) {
+                            // Merged in memory from per-sub rankings where possible
+                            ids = subFeedIndex.homeFeedIds(user.getSubscribedSubs(), feedSort, limit);
+                        }
+                        // Fall back to all posts if subscribed feed is empty
+                        if (!ids.isEmpty()) {
+                            return ids;
+                        }
+                    }
+                    return idsOf(postRepository.findAllIds(createPageable(sort, 0, limit)));
+                },
+                pageable -> {
+                    Slice<Post> posts = subscribed
+                            ? postRepository.findBySubIdIn(user.getSubscribedSubs(), pageable)
+                            : postRepository.findAllBy(pageable);
+                    return posts.isEmpty() && subscribed ? postRepository.findAllBy(pageable) : posts;
+                });
+    }
+
+    /**
+     * Page-based sub feed. The name is resolved to the sub id once (SubNameIndex) so every sort
+     * runs on the {subId, sort key, _id} indexes.
+     */
+    public RankedFeedPage getPostsBySubs(String subName, String sort, String t, int page, int size, User user, String feedToken) {
+        Optional<String> resolved = subNameIndex.subIdOf(subName);
+        if (resolved.isEmpty()) {
+            return new RankedFeedPage(PostFeed.EMPTY, null);
+        }
+        String subId = resolved.get();
+        TopWindow window = topWindow(sort, t);
+        String scope = "sub:" + subId + ":" + sort.toLowerCase() + ":" + window.key();
+        RankedFeedPage result = isRising(sort)
+                ? rankedPage(scope, sort, page, size, feedToken, user,
+                        limit -> risingPosts.subs(List.of(subId), limit),
+                        NO_DEEPER_PAGES)
+                : window.isBounded()
+                ? rankedPage(scope, sort, page, size, feedToken, user,
+                        limit -> topWindowRankings.sub(subName, window, limit),
+                        NO_DEEPER_PAGES)
+                : rankedPage(scope, sort, page, size, feedToken, user,
+                        limit -> idsOf(postRepository.findIdsBySubId(subId, createPageable(sort, 0, limit))),
+                        pageable -> postRepository.findBySubId(subId, pageable));
+        result.setPosts(withPinned(subName, page == 0, result.getPosts(), user));
+        return result;
+    }
+
+    /**
+     * Pinned posts lead the first page of a sub in every sort and are left out of the ranked
+     * pages themselves, so they never show up twice
+     */
+    private PostFeed withPinned(String subName, boolean firstPage, PostFeed feed, User user) {
+        List<Post> ranked = feed.posts().stream().filter(post -> !post.isPinned()).collect(Collectors.toList());
+        if (!firstPage) {
+            return ranked.size() == feed.posts().size() ? feed : new PostFeed(ranked, feed.userVotes());
+        }
+        List<Post> pinned = visibleTo(pinnedPosts.pinnedIn(subName), user);
+        if (pinned.isEmpty() && ranked.size() == feed.posts().size()) {
+            return feed;
+        }
+
+        List<Post> posts = new ArrayList<>(pinned.size() + ranked.size());
+        posts.addAll(pinned);
+        posts.addAll(ranked);
+        Map<String, Integer> userVotes = new HashMap<>(feed.userVotes());
+        if (user != null && !pinned.isEmpty()) {
+            userVotes.putAll(userVoteCache.votesFor(user.getId(), idsOf(pinned)));
+        }
+        return new PostFeed(posts, userVotes, feed.savedIds());
+    }
+
+    /**
+     * Serve a page from the ranked snapshot, materializing the top ids on first use.
+     * Pages past the snapshot depth fall back to a plain paged query.
+     */
+    private RankedFeedPage rankedPage(String scope, String sort, int page, int size, String feedToken, User user,
+                                      IntFunction<List<String>> rankedIds,
+                                      Function<Pageable, Slice<Post>> pageQuery) {
+        if (page < 0) {
+            throw new BadRequestException("Page must not be negative");
+        }
+        int pageSize = Math.max(1, Math.min(size, MAX_FEED_PAGE_SIZE));
+        // In long: page * size can overflow an int
+        long end = ((long) page + 1) * pageSize;
+        if (end > RANKED_SNAPSHOT_DEPTH) {
+            List<Post> posts = pageQuery.apply(createPageable(sort, page, pageSize)).getContent();
+            return new RankedFeedPage(toFeed(visibleTo(posts, user), user), null);
+        }
+        int to = (int) end;
+        int from = to - pageSize;
+
+        // Hidden posts are skipped inside the snapshot, so the page is still full
+        Predicate<String> hidden = hiddenBy(user);
+        List<String> ids = feedToken != null ? rankedFeedSnapshots.slice(feedToken, scope, from, to, hidden) : null;
+        if (ids == null) {
+            feedToken = rankedFeedSnapshots.findReusable(scope);
+            if (feedToken == null) {
+                feedToken = rankedFeedSnapshots.create(scope, rankedIds.apply(RANKED_SNAPSHOT_DEPTH));
             }
-        } else {
-            posts = postRepository.findAll(pageable);
+            ids = rankedFeedSnapshots.slice(feedToken, scope, from, to, hidden);
+        }
+
+        return new RankedFeedPage(feedOf(ids, user), feedToken);
+    }
+
+    private static List<String> idsOf(List<Post> posts) {
+        return posts.stream().map(Post::getId).collect(Collectors.toList());
+    }
+
+    /**
+     * Rising is ranked in memory by vote velocity (see RisingPosts), not by a stored field
+     */
+    private static boolean isRising(String sort) {
+        return "rising".equalsIgnoreCase(sort);
+    }
+
+    /**
+     * The t parameter only applies to top feeds
+     */
+    private static TopWindow topWindow(String sort, String t) {
+        return FeedSort.from(sort) == FeedSort.TOP ? TopWindow.from(t) : TopWindow.ALL;
+    }
+
+    /**
+     * Narrow a cursor feed filter to the posts created inside the top window
+     */
+    private static CriteriaDefinition inWindow(Criteria filter, TopWindow window) {
+        if (!window.isBounded()) {
+            return filter;
         }
+        Criteria created = Criteria.where("createdAt").gte(window.since(Instant.now()));
+        return filter == null ? created : new Criteria().andOperator(filter, created);
+    }
 
-        return mapPostsWithUserVotes(posts.getContent(), user);
+    /**
+     * Predicate over the reader's hidden post ids, or null if there is nothing to filter
+     */
+    private static Predicate<String> hiddenBy(User user) {
+        if (user == null || user.getHiddenPosts() == null || user.getHiddenPosts().isEmpty()) {
+            return null;
+        }
+        return user.getHiddenPosts()::contains;
     }
 
-    public List<PostResponse> getPostsBySubs(String subName, String sort, int page, int size, User user) {
-        Pageable pageable = createPageable(sort, page, size);
-        Page<Post> posts = postRepository.findBySubName(subName, pageable);
-        List<Post> postList = posts.getContent();
+    /**
+     * Drop posts the reader has hidden
+     */
+    private List<Post> visibleTo(List<Post> posts, User user) {
+        Predicate<String> hidden = hiddenBy(user);
+        if (hidden == null) {
+            return posts;
+        }
+        return posts.stream().filter(post -> !hidden.test(post.getId())).collect(Collectors.toList());
+    }
 
-        // Sort pinned posts first (only on first page)
-        if (page == 0) {
-            postList = postList.stream()
-                    .sorted((p1, p2) -> {
-                        if (p1.isPinned() && !p2.isPinned()) return -1;
-                        if (!p1.isPinned() && p2.isPinned()) return 1;
-                        return 0;
-                    })
-                    .collect(Collectors.toList());
+    /**
+     * Bulk-fetch posts by id in the given order, skipping any deleted since. For readers whose
+     * votes are not cached the votes are joined into the same query.
+     */
+    private PostFeed feedOf(List<String> ids, User user) {
+        if (ids == null || ids.isEmpty()) {
+            return PostFeed.EMPTY;
+        }
+        if (user != null && !userVoteCache.isCached(user.getId())) {
+            PostFeed joined = postRepository.findByIdInWithVotes(ids, user.getId());
+            userVoteCache.prime(user.getId(), ids, joined.userVotes());
+            return new PostFeed(inOrder(ids, joined.posts()), joined.userVotes());
         }
+        return toFeed(inOrder(ids, postRepository.findByIdIn(ids)), user);
+    }
 
-        return mapPostsWithUserVotes(postList, user);
+    private static List<Post> inOrder(List<String> ids, List<Post> posts) {
+        Map<String, Post> byId = new HashMap<>();
+        posts.forEach(post -> byId.put(post.getId(), post));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
     }
 
-    public List<PostResponse> getPostsByUser(String authorId, int page, int size, User currentUser) {
+    public PostFeed getPostsByUser(String authorId, int page, int size, User currentUser) {
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
-        Page<Post> posts = postRepository.findByAuthorId(authorId, pageable);
-        return mapPostsWithUserVotes(posts.getContent(), currentUser);
+        Slice<Post> posts = postRepository.findByAuthorId(authorId, pageable);
+        return toFeed(visibleTo(posts.getContent(), currentUser), currentUser);
+    }
+
+    /**
+     * Home feed with keyset pagination: subscribed subs, or everything for anonymous users
+     * and users whose subscriptions have no posts yet
+     */
+    public FeedPage getHomeFeedPage(User user, String sort, String t, String after, int size) {
+        FeedSort feedSort = FeedSort.from(sort);
+        FeedCursor cursor = FeedCursor.decode(after, feedSort);
+        TopWindow window = topWindow(sort, t);
+
+        if (user != null && !user.getSubscribedSubs().isEmpty()) {
+            CriteriaDefinition filter = inWindow(Criteria.where("subId").in(user.getSubscribedSubs()), window);
+            // Same fallback as the page-based feed. The cursor does not say which feed issued it,
+            // so later pages re-check that the subscribed feed has any posts at all.
+            if (cursor == null) {
+                FeedPage subscribed = feedPage(filter, feedSort, null, size, user);
+                if (!subscribed.getItems().isEmpty()) {
+                    return subscribed;
+                }
+            } else if (postRepository.existsMatching(filter)) {
+                return feedPage(filter, feedSort, cursor, size, user);
+            }
+        }
+        return feedPage(inWindow(null, window), feedSort, cursor, size, user);
     }
 
-    public List<PostResponse> getPopularPosts(User user) {
-        List<Post> posts = postRepository.findTop100ByOrderByVoteCountDesc();
-        return mapPostsWithUserVotes(posts, user);
+    public FeedPage getSubFeedPage(String subName, String sort, String t, String after, int size, User user) {
+        FeedSort feedSort = FeedSort.from(sort);
+        FeedCursor cursor = FeedCursor.decode(after, feedSort);
+        Optional<String> subId = subNameIndex.subIdOf(subName);
+        if (subId.isEmpty()) {
+            return FeedPage.builder().items(PostFeed.EMPTY).hasMore(false).build();
+        }
+        FeedPage feed = feedPage(inWindow(Criteria.where("subId").is(subId.get()), topWindow(sort, t)),
+                feedSort, cursor, size, user);
+        feed.setItems(withPinned(subName, cursor == null, feed.getItems(), user));
+        return feed;
+    }
+
+    public FeedPage getUserFeedPage(String authorId, String after, int size, User currentUser) {
+        FeedCursor cursor = FeedCursor.decode(after, FeedSort.NEW);
+        return feedPage(Criteria.where("authorId").is(authorId), FeedSort.NEW, cursor, size, currentUser);
+    }
+
+    public FeedPage searchFeedPage(String query, String after, int size, User user) {
+        if (query == null || query.trim().length() < 2) {
+            return FeedPage.builder().items(PostFeed.EMPTY).hasMore(false).build();
+        }
+        FeedCursor cursor = FeedCursor.decode(after, FeedSort.NEW);
+        try {
+            return feedPage(TextCriteria.forDefaultLanguage().matching(query.trim()), FeedSort.NEW, cursor, size, user);
+        } catch (Exception e) {
+            log.debug("Text search failed, falling back to regex: {}", e.getMessage());
+            String pattern = Pattern.quote(query);
+            Criteria regex = new Criteria().orOperator(
+                    Criteria.where("title").regex(pattern, "i"),
+                    Criteria.where("content").regex(pattern, "i"));
+            return feedPage(regex, FeedSort.NEW, cursor, size, user);
+        }
     }
 
-    public List<PostResponse> getNewPosts(User user) {
-        List<Post> posts = postRepository.findTop100ByOrderByCreatedAtDesc();
-        return mapPostsWithUserVotes(posts, user);
+    /**
+     * Fetch one extra row to learn whether another page exists - no count query, no skip.
+     * Readers whose votes are not cached get them joined into the same query (one roundtrip).
+     * Posts the reader has hidden are dropped and the page is topped up from further down.
+     */
+    private FeedPage feedPage(CriteriaDefinition filter, FeedSort sort, FeedCursor cursor, int size, User user) {
+        int limit = Math.max(1, Math.min(size, MAX_FEED_PAGE_SIZE));
+        boolean joinVotes = user != null && !userVoteCache.isCached(user.getId());
+        Predicate<String> hidden = hiddenBy(user);
+
+        List<Post> posts = new ArrayList<>(limit + 1);
+        Map<String, Integer> joinedVotes = new HashMap<>();
+        FeedCursor position = cursor;
+        boolean exhausted = false;
+        for (int read = 0; posts.size() <= limit && read <= MAX_HIDDEN_BACKFILL_READS; read++) {
+            PostFeed fetched = joinVotes
+                    ? postRepository.findFeedWithVotes(filter, sort, position, limit + 1, user.getId())
+                    : PostFeed.of(postRepository.findFeed(filter, sort, position, limit + 1));
+            joinedVotes.putAll(fetched.userVotes());
+            for (Post post : fetched.posts()) {
+                if (hidden == null || !hidden.test(post.getId())) {
+                    posts.add(post);
+                }
+            }
+            if (fetched.posts().size() <= limit) {
+                exhausted = true;
+                break;
+            }
+            position = FeedCursor.after(fetched.posts().get(fetched.posts().size() - 1), sort);
+        }
+
+        FeedCursor next = null;
+        if (posts.size() > limit) {
+            posts = posts.subList(0, limit);
+            next = FeedCursor.after(posts.get(limit - 1), sort);
+        } else if (!exhausted) {
+            // Read budget spent on hidden posts - continue after the last row examined
+            next = position;
+        }
+
+        PostFeed items;
+        if (joinVotes) {
+            userVoteCache.prime(user.getId(), idsOf(posts), joinedVotes);
+            items = new PostFeed(posts, joinedVotes);
+        } else {
+            items = toFeed(posts, user);
+        }
+        return FeedPage.builder()
+                .items(items)
+                .nextCursor(next != null ? next.encode() : null)
+                .hasMore(next != null)
+                .build();
     }
 
-    public List<PostResponse> getHotPosts(User user) {
-        // Hot posts from last 7 days, sorted by votes (fallback to all posts if empty)
-        Instant since = Instant.now().minus(Duration.ofDays(7));
-        List<Post> posts = postRepository.findTop100ByCreatedAtAfterOrderByVoteCountDesc(since);
-        if (posts.isEmpty()) {
-            posts = postRepository.findTop100ByOrderByVoteCountDesc();
+    /**
+     * Site-wide top posts; all-time comes from the front page snapshot, bounded windows from
+     * their precomputed rankings
+     */
+    public PostFeed getPopularPosts(User user, String t) {
+        TopWindow window = TopWindow.from(t);
+        if (!window.isBounded()) {
+            return fromSnapshot(frontPageSnapshots.top(), user);
+        }
+        List<String> ids = topWindowRankings.site(window, FRONT_PAGE_SIZE);
+        Predicate<String> hidden = hiddenBy(user);
+        if (hidden != null) {
+            ids = ids.stream().filter(id -> !hidden.test(id)).collect(Collectors.toList());
         }
-        return mapPostsWithUserVotes(posts, user);
+        return feedOf(ids, user);
+    }
+
+    public PostFeed getNewPosts(User user) {
+        return fromSnapshot(frontPageSnapshots.newest(), user);
+    }
+
+    public PostFeed getHotPosts(User user) {
+        return fromSnapshot(frontPageSnapshots.hot(), user);
+    }
+
+    /**
+     * Serve a front page list from memory; signed-in readers get their own votes overlaid
+     * on the shared posts
+     */
+    private PostFeed fromSnapshot(FrontPageSnapshots.Snapshot snapshot, User user) {
+        return toFeed(visibleTo(snapshot.posts(), user), user);
     }
 
     /**
-     * Atomic comment count update using MongoDB $inc operator
+     * Atomic comment count update using MongoDB $inc operator, then refresh the hot score
      */
     public void updateCommentCount(String postId, int delta) {
         postRepository.incrementCommentCount(postId, delta);
+        refreshHotScore(postId);
     }
 
     /**
-     * Atomic vote count update using MongoDB $inc operator
+     * Atomic vote count update using MongoDB $inc operator, then refresh the hot score
      */
     public void updateVoteCount(String postId, int delta) {
         postRepository.incrementVoteCount(postId, delta);
+        refreshHotScore(postId);
+    }
+
+    private void refreshHotScore(String postId) {
+        postRepository.findVoteStateById(postId).ifPresent(p -> {
+            double hotScore = HotScore.of(p.getVoteCount(), p.getCommentCount(), p.getCreatedAt());
+            postRepository.updateHotScore(postId, hotScore);
+            subFeedIndex.onHotScoreChanged(postId, p.getSubId(), hotScore);
+        });
     }
 
+    /**
+     * Same order as the cursor feeds (sort key, then _id), which the feed indexes return as-is
+     */
     private Pageable createPageable(String sort, int page, int size) {
-        Sort sortOrder = switch (sort.toLowerCase()) {
-            case "new" -> Sort.by(Sort.Direction.DESC, "createdAt");
-            case "top" -> Sort.by(Sort.Direction.DESC, "voteCount");
-            case "controversial" -> Sort.by(Sort.Direction.ASC, "voteCount");
-            default -> Sort.by(Sort.Direction.DESC, "voteCount", "createdAt");
-        };
-        return PageRequest.of(page, size, sortOrder);
+        return PageRequest.of(page, size, FeedSort.from(sort).toSort());
     }
 
-    private List<PostResponse> mapPostsWithUserVotes(List<Post> posts, User user) {
-        if (user == null) {
-            return posts.stream()
-                    .map(post -> mapToResponse(post, null))
-                    .collect(Collectors.toList());
+    /**
+     * Wrap posts for streaming serialization, with the reader's votes from the vote cache
+     */
+    private PostFeed toFeed(List<Post> posts, User user) {
+        if (user == null || posts.isEmpty()) {
+            return PostFeed.of(posts);
         }
 
         List<String> postIds = posts.stream().map(Post::getId).collect(Collectors.toList());
-        List<Vote> userVotes = voteRepository.findByUserIdAndTargetIdIn(user.getId(), postIds);
-        Map<String, Integer> voteMap = userVotes.stream()
-                .collect(Collectors.toMap(Vote::getTargetId, v -> v.getVoteType().getValue()));
-
-        return posts.stream()
-                .map(post -> mapToResponse(post, voteMap.get(post.getId())))
-                .collect(Collectors.toList());
+        return new PostFeed(posts, userVoteCache.votesFor(user.getId(), postIds));
     }
 
     public PostResponse mapToResponse(Post post, Integer userVote) {
@@ -196,8 +552,9 @@ public class PostService {
                 .flairColor(post.getFlairColor())
                 .voteCount(post.getVoteCount())
                 .commentCount(post.getCommentCount())
-                .createdAt(formatDate(post.getCreatedAt()))
-                .timeAgo(getTimeAgo(post.getCreatedAt()))
+                .createdAt(TimeFormat.dateTime(post.getCreatedAt()))
+                .createdAtEpochMs(post.getCreatedAt().toEpochMilli())
+                .timeAgo(TimeFormat.timeAgo(post.getCreatedAt()))
                 .nsfw(post.isNsfw())
                 .spoiler(post.isSpoiler())
                 .locked(post.isLocked())
@@ -208,35 +565,6 @@ public class PostService {
                 .build();
     }
 
-    private String formatDate(Instant instant) {
-        return DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm")
-                .withZone(ZoneId.systemDefault())
-                .format(instant);
-    }
-
-    private String getTimeAgo(Instant instant) {
-        Duration duration = Duration.between(instant, Instant.now());
-
-        if (duration.toMinutes() < 1) {
-            return "just now";
-        } else if (duration.toMinutes() < 60) {
-            long mins = duration.toMinutes();
-            return mins + (mins == 1 ? " minute ago" : " minutes ago");
-        } else if (duration.toHours() < 24) {
-            long hours = duration.toHours();
-            return hours + (hours == 1 ? " hour ago" : " hours ago");
-        } else if (duration.toDays() < 30) {
-            long days = duration.toDays();
-            return days + (days == 1 ? " day ago" : " days ago");
-        } else if (duration.toDays() < 365) {
-            long months = duration.toDays() / 30;
-            return months + (months == 1 ? " month ago" : " months ago");
-        } else {
-            long years = duration.toDays() / 365;
-            return years + (years == 1 ? " year ago" : " years ago");
-        }
-    }
-
     public PostResponse updatePost(String postId, Map<String, String> updates, User user) {
         Post post = postRepository.findById(postId)
                 .orElseThrow(() -> new ResourceNotFoundException("Post", "id", postId));
@@ -247,6 +575,7 @@ public class PostService {
 
         if (updates.containsKey("content")) {
             post.setContent(updates.get("content"));
+            post.setPreview(PostPreview.of(post.getContent()));
         }
         if (updates.containsKey("flair")) {
             post.setFlair(updates.get("flair"));
@@ -271,11 +600,17 @@ public class PostService {
         }
 
         postRepository.delete(post);
+        frontPageSnapshots.onPostDeleted(postId);
+        savedPostService.onPostDeleted(postId);
+        subFeedIndex.onPostDeleted(postId, post.getSubId());
+        if (post.isPinned()) {
+            pinnedPosts.evict(post.getSubName());
+        }
     }
 
-    public List<PostResponse> searchPosts(String query, int page, int size, User user) {
+    public PostFeed searchPosts(String query, int page, int size, User user) {
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
-        Page<Post> posts;
+        Slice<Post> posts;
 
         // Use text search if query has actual content
         if (query != null && query.trim().length() >= 2) {
@@ -288,20 +623,39 @@ public class PostService {
                         query, query, pageable);
             }
         } else {
-            posts = Page.empty();
+            posts = new SliceImpl<>(List.of());
         }
 
-        return mapPostsWithUserVotes(posts.getContent(), user);
+        return toFeed(visibleTo(posts.getContent(), user), user);
     }
 
-    public List<PostResponse> getSavedPosts(User user, int page, int size) {
-        Set<String> savedPostIds = user.getSavedPosts();
-        if (savedPostIds == null || savedPostIds.isEmpty()) {
-            return List.of();
+    public PostFeed getSavedPosts(User user, int page, int size) {
+        int limit = Math.max(1, Math.min(size, MAX_FEED_PAGE_SIZE));
+        return savedFeed(savedPostService.page(user.getId(), page, limit), user);
+    }
+
+    /**
+     * Saved posts newest-saved first, with keyset pagination over saved_posts
+     */
+    public FeedPage getSavedFeedPage(User user, String after, int size) {
+        int limit = Math.max(1, Math.min(size, MAX_FEED_PAGE_SIZE));
+        FeedCursor cursor = FeedCursor.decode(after, FeedSort.NEW);
+        List<SavedPost> saved = savedPostService.after(user.getId(), cursor, limit + 1);
+        boolean hasMore = saved.size() > limit;
+        if (hasMore) {
+            saved = saved.subList(0, limit);
         }
+        return FeedPage.builder()
+                .items(savedFeed(saved, user))
+                .nextCursor(hasMore ? SavedPostService.cursorAfter(saved.get(saved.size() - 1)).encode() : null)
+                .hasMore(hasMore)
+                .build();
+    }
 
-        List<Post> posts = postRepository.findByIdIn(savedPostIds);
-        return mapPostsWithUserVotes(posts, user);
+    private PostFeed savedFeed(List<SavedPost> saved, User user) {
+        List<String> ids = saved.stream().map(SavedPost::getPostId).collect(Collectors.toList());
+        PostFeed feed = feedOf(ids, user);
+        return new PostFeed(feed.posts(), feed.userVotes(), Set.copyOf(ids));
     }
 
     public PostResponse mapToResponseWithUserData(Post post, User user) {
@@ -310,11 +664,8 @@ public class PostService {
         boolean hidden = false;
 
         if (user != null) {
-            List<Vote> votes = voteRepository.findByUserIdAndTargetIdIn(user.getId(), List.of(post.getId()));
-            if (!votes.isEmpty()) {
-                userVote = votes.get(0).getVoteType().getValue();
-            }
-            saved = user.getSavedPosts() != null && user.getSavedPosts().contains(post.getId());
+            userVote = userVoteCache.votesFor(user.getId(), List.of(post.getId())).get(post.getId());
+            saved = savedPostService.isSaved(user.getId(), post.getId());
             hidden = user.getHiddenPosts() != null && user.getHiddenPosts().contains(post.getId());
         }
 
@@ -0,0 +1,129 @@
+package com.nested.server.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Short-lived ranked id lists behind page-based hot/top feeds. The first page materializes the
+ * ranking once and hands out an opaque feed token; later pages slice the same list, so posts
+ * moving in the ranking between requests are neither repeated nor skipped.
+ * Ids are packed as 12-byte ObjectIds (3 ints each) to keep a 1000-post snapshot around 12 KB.
+ */
+@Component
+public class RankedFeedSnapshots {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    // token -> snapshot, oldest first so the eldest can be evicted when full
+    private final LinkedHashMap<String, Snapshot> snapshots = new LinkedHashMap<>();
+    // scope -> token of the newest snapshot, so identical feeds share one materialization
+    private final Map<String, String> latestByScope = new HashMap<>();
+
+    @Value("${app.feed.ranked-snapshot.ttl-ms:600000}")
+    private long ttlMillis;
+
+    @Value("${app.feed.ranked-snapshot.reuse-ms:10000}")
+    private long reuseMillis;
+
+    @Value("${app.feed.ranked-snapshot.max-entries:2000}")
+    private int maxEntries;
+
+    /**
+     * Token of a recent snapshot for this scope, or null if a new one should be materialized
+     */
+    public synchronized String findReusable(String scope) {
+        String token = latestByScope.get(scope);
+        if (token == null) {
+            return null;
+        }
+        Snapshot snapshot = snapshots.get(token);
+        if (snapshot == null || snapshot.createdAtMillis + reuseMillis <= System.currentTimeMillis()) {
+            return null;
+        }
+        return token;
+    }
+
+    public synchronized String create(String scope, List<String> ids) {
+        long now = System.currentTimeMillis();
+        evict(now);
+
+        String token = newToken();
+        snapshots.put(token, new Snapshot(scope, PackedIds.pack(ids), now));
+        latestByScope.put(scope, token);
+        return token;
+    }
+
+    /**
+     * Ids in [from, to) of the snapshot, or null if the token is unknown, expired or for another feed
+     */
+    public List<String> slice(String token, String scope, int from, int to) {
+        return slice(token, scope, from, to, null);
+    }
+
+    /**
+     * Like slice, but positions count only ids that are not excluded, so every page of a reader
+     * who hides posts is still full and pages neither overlap nor skip
+     */
+    public List<String> slice(String token, String scope, int from, int to, Predicate<String> exclude) {
+        Snapshot snapshot;
+        synchronized (this) {
+            snapshot = snapshots.get(token);
+        }
+        if (snapshot == null || !snapshot.scope.equals(scope)
+                || snapshot.createdAtMillis + ttlMillis <= System.currentTimeMillis()) {
+            return null;
+        }
+
+        int count = PackedIds.size(snapshot.packed);
+        from = Math.max(0, from);
+        if (exclude == null) {
+            int end = Math.min(to, count);
+            List<String> ids = new ArrayList<>(Math.max(0, end - from));
+            for (int i = from; i < end; i++) {
+                ids.add(PackedIds.unpack(snapshot.packed, i));
+            }
+            return ids;
+        }
+
+        List<String> ids = new ArrayList<>(Math.max(0, to - from));
+        int visible = 0;
+        for (int i = 0; i < count && visible < to; i++) {
+            String id = PackedIds.unpack(snapshot.packed, i);
+            if (!exclude.test(id)) {
+                if (visible >= from) {
+                    ids.add(id);
+                }
+                visible++;
+            }
+        }
+        return ids;
+    }
+
+    private void evict(long now) {
+        snapshots.values().removeIf(s -> s.createdAtMillis + ttlMillis <= now);
+        var it = snapshots.entrySet().iterator();
+        while (snapshots.size() >= maxEntries && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+        latestByScope.values().retainAll(snapshots.keySet());
+    }
+
+    private static String newToken() {
+        byte[] bytes = new byte[16];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private record Snapshot(String scope, int[] packed, long createdAtMillis) {
+    }
+}
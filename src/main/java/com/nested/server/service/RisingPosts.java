@@ -0,0 +1,177 @@
+package com.nested.server.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * "Rising" ranking: posts gaining upvotes fastest right now, site-wide and per sub (per node).
+ * Every upvote on a recent post bumps a ring of per-minute buckets with a single CAS; a periodic
+ * pass turns the rings into ranked lists, favouring the latest minutes, and drops posts that
+ * went quiet or grew too old. Only posts younger than max-age-ms are tracked and at most
+ * max-posts at a time, so memory does not grow with the number of posts.
+ */
+@Component
+public class RisingPosts {
+
+    // Ring length: votes older than this no longer count
+    private static final int WINDOW_MINUTES = 60;
+    // A vote this many minutes old counts half as much as one cast now
+    private static final double HALF_LIFE_MINUTES = 15d;
+    private static final int COUNT_BITS = 20;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    // postId -> vote velocity
+    private final Map<String, Velocity> tracked = new ConcurrentHashMap<>();
+
+    private volatile List<Entry> site = List.of();
+    private volatile Map<String, List<Entry>> bySub = Map.of();
+
+    @Value("${app.feed.rising.max-posts:50000}")
+    private int maxPosts;
+
+    @Value("${app.feed.rising.max-age-ms:86400000}")
+    private long maxAgeMillis;
+
+    @Value("${app.feed.rising.size:100}")
+    private int size;
+
+    public RisingPosts(MeterRegistry meterRegistry) {
+        Gauge.builder("feed.rising.tracked", tracked, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * Vote hot path: one map lookup and one CAS on the post's current minute bucket
+     */
+    public void onUpvote(String postId, String subId, Instant createdAt) {
+        long now = System.currentTimeMillis();
+        Velocity velocity = tracked.get(postId);
+        if (velocity == null) {
+            if (createdAt == null || createdAt.toEpochMilli() + maxAgeMillis < now || tracked.size() >= maxPosts) {
+                return;
+            }
+            velocity = tracked.computeIfAbsent(postId, id -> new Velocity(subId, createdAt.toEpochMilli()));
+        }
+        velocity.increment(now / 60_000);
+    }
+
+    /**
+     * Rising post ids site-wide, fastest first
+     */
+    public List<String> site(int limit) {
+        return ids(site, limit);
+    }
+
+    /**
+     * Rising post ids across the given subs, fastest first
+     */
+    public List<String> subs(List<String> subIds, int limit) {
+        Map<String, List<Entry>> lists = bySub;
+        if (subIds.size() == 1) {
+            return ids(lists.getOrDefault(subIds.get(0), List.of()), limit);
+        }
+        List<Entry> merged = new ArrayList<>();
+        for (String subId : subIds) {
+            merged.addAll(lists.getOrDefault(subId, List.of()));
+        }
+        merged.sort(Entry.FASTEST_FIRST);
+        return ids(merged, limit);
+    }
+
+    /**
+     * Rank every tracked post and publish the new lists; quiet and expired posts are dropped
+     */
+    @Scheduled(fixedDelayString = "${app.feed.rising.rank-ms:30000}")
+    public void rank() {
+        long now = System.currentTimeMillis();
+        long minute = now / 60_000;
+        List<Entry> all = new ArrayList<>();
+        tracked.entrySet().removeIf(post -> {
+            Velocity velocity = post.getValue();
+            double score = velocity.score(minute);
+            if (score == 0 || velocity.createdAtMillis + maxAgeMillis < now) {
+                return true;
+            }
+            all.add(new Entry(post.getKey(), velocity.subId, score));
+            return false;
+        });
+        all.sort(Entry.FASTEST_FIRST);
+
+        Map<String, List<Entry>> subs = new HashMap<>();
+        for (Entry entry : all) {
+            List<Entry> list = subs.computeIfAbsent(entry.subId, id -> new ArrayList<>());
+            if (list.size() < size) {
+                list.add(entry);
+            }
+        }
+        subs.replaceAll((subId, list) -> List.copyOf(list));
+        site = List.copyOf(all.subList(0, Math.min(size, all.size())));
+        bySub = subs;
+    }
+
+    private static List<String> ids(List<Entry> entries, int limit) {
+        List<String> ids = new ArrayList<>(Math.min(limit, entries.size()));
+        for (int i = 0; i < entries.size() && ids.size() < limit; i++) {
+            ids.add(entries.get(i).postId);
+        }
+        return ids;
+    }
+
+    private record Entry(String postId, String subId, double score) {
+        static final Comparator<Entry> FASTEST_FIRST = Comparator.comparingDouble(Entry::score).reversed();
+    }
+
+    /**
+     * Ring of per-minute upvote counts. Each slot packs the minute it belongs to with its count,
+     * so moving a slot on to a new minute and counting are the same compare-and-set.
+     */
+    private static final class Velocity {
+        private final String subId;
+        private final long createdAtMillis;
+        private final AtomicLongArray slots = new AtomicLongArray(WINDOW_MINUTES);
+
+        private Velocity(String subId, long createdAtMillis) {
+            this.subId = subId;
+            this.createdAtMillis = createdAtMillis;
+        }
+
+        void increment(long minute) {
+            int slot = (int) (minute % WINDOW_MINUTES);
+            while (true) {
+                long current = slots.get(slot);
+                long next = (current >>> COUNT_BITS) == minute
+                        ? current + ((current & COUNT_MASK) < COUNT_MASK ? 1 : 0)
+                        : (minute << COUNT_BITS) | 1;
+                if (slots.compareAndSet(slot, current, next)) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Upvotes within the window, each weighted down by its age
+         */
+        double score(long minute) {
+            double score = 0;
+            for (int i = 0; i < WINDOW_MINUTES; i++) {
+                long value = slots.get(i);
+                long age = minute - (value >>> COUNT_BITS);
+                if (value != 0 && age >= 0 && age < WINDOW_MINUTES) {
+                    score += (value & COUNT_MASK) * Math.pow(0.5, age / HALF_LIFE_MINUTES);
+                }
+            }
+            return score;
+        }
+    }
+}
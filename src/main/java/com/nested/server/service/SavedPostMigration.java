@@ -0,0 +1,72 @@
+package com.nested.server.service;
+
+import com.nested.server.model.SavedPost;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Moves the legacy users.savedPosts sets into the saved_posts collection at startup.
+ * Runs while the context starts, before the web server accepts requests, so this node never
+ * serves saved posts from a half-migrated user. Each user is copied with idempotent upserts
+ * before the embedded set is removed, so an interrupted run simply continues on the next start,
+ * as do sets that older nodes still write during a rolling deploy.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SavedPostMigration {
+
+    private static final int BATCH_SIZE = 100;
+
+    private final MongoTemplate mongoTemplate;
+
+    @PostConstruct
+    public void migrate() {
+        int users = 0;
+        while (true) {
+            Query query = new Query(Criteria.where("savedPosts").exists(true)).limit(BATCH_SIZE);
+            query.fields().include("savedPosts");
+            List<Document> batch = mongoTemplate.find(query, Document.class, "users");
+            if (batch.isEmpty()) {
+                break;
+            }
+            for (Document user : batch) {
+                migrateUser(user);
+            }
+            users += batch.size();
+        }
+        if (users > 0) {
+            log.info("Moved saved posts of {} users to saved_posts", users);
+        }
+    }
+
+    private void migrateUser(Document user) {
+        Object rawId = user.get("_id");
+        String userId = rawId instanceof ObjectId objectId ? objectId.toHexString() : rawId.toString();
+        List<String> postIds = user.getList("savedPosts", String.class, List.of());
+        if (!postIds.isEmpty()) {
+            // The sets carried no timestamps; space entries a millisecond apart for a stable order
+            Instant savedAt = Instant.now();
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, SavedPost.class);
+            for (int i = 0; i < postIds.size(); i++) {
+                Query entry = new Query(Criteria.where("userId").is(userId).and("postId").is(postIds.get(i)));
+                bulk.upsert(entry, new Update().setOnInsert("savedAt", savedAt.minusMillis(i)));
+            }
+            bulk.execute();
+        }
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(rawId)),
+                new Update().unset("savedPosts"), "users");
+    }
+}
@@ -0,0 +1,74 @@
+package com.nested.server.service;
+
+import com.nested.server.dto.FeedCursor;
+import com.nested.server.model.FeedSort;
+import com.nested.server.model.SavedPost;
+import com.nested.server.repository.SavedPostRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Saved posts, one document per (user, post) in saved_posts rather than a set embedded in the
+ * user document, so heavy savers do not make every user fetch larger
+ */
+@Service
+@RequiredArgsConstructor
+public class SavedPostService {
+
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "savedAt", "id");
+
+    private final SavedPostRepository savedPostRepository;
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Atomic toggle: delete if saved, otherwise upsert - no read-modify-write
+     */
+    public boolean toggle(String userId, String postId) {
+        if (savedPostRepository.deleteByUserIdAndPostId(userId, postId) > 0) {
+            return false;
+        }
+        Query query = new Query(Criteria.where("userId").is(userId).and("postId").is(postId));
+        mongoTemplate.upsert(query, new Update().setOnInsert("savedAt", Instant.now()), SavedPost.class);
+        return true;
+    }
+
+    public boolean isSaved(String userId, String postId) {
+        return savedPostRepository.existsByUserIdAndPostId(userId, postId);
+    }
+
+    public List<SavedPost> page(String userId, int page, int size) {
+        return savedPostRepository.findByUserId(userId, PageRequest.of(page, size, NEWEST_FIRST));
+    }
+
+    /**
+     * Up to limit saved entries, newest first, strictly after the cursor (null for the first page)
+     */
+    public List<SavedPost> after(String userId, FeedCursor cursor, int limit) {
+        PageRequest pageable = PageRequest.of(0, limit, NEWEST_FIRST);
+        if (cursor == null) {
+            return savedPostRepository.findByUserId(userId, pageable);
+        }
+        Instant savedAt = Instant.ofEpochMilli((long) cursor.key());
+        return savedPostRepository.findByUserIdAfter(userId, savedAt, cursor.id(), pageable);
+    }
+
+    /**
+     * Cursor continuing after the given entry; saved feeds reuse the NEW cursor format
+     */
+    public static FeedCursor cursorAfter(SavedPost savedPost) {
+        return new FeedCursor(FeedSort.NEW, savedPost.getSavedAt().toEpochMilli(), savedPost.getId());
+    }
+
+    public void onPostDeleted(String postId) {
+        savedPostRepository.deleteByPostId(postId);
+    }
+}
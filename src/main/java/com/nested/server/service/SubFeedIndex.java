@@ -0,0 +1,405 @@
+package com.nested.server.service;
+
+import com.nested.server.dto.FeedCursor;
+import com.nested.server.model.FeedSort;
+import com.nested.server.model.Post;
+import com.nested.server.repository.PostRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory per-sub top-N rankings (hot, new, top) used to build home feeds for users with many
+ * subscriptions. A home page is a k-way heap merge over the user's subs instead of one large
+ * $in query that MongoDB has to sort in memory. Subs that are not resident ("long tail") are
+ * covered by a single $in query merged in as one more source, and then warmed in the background.
+ * Lists are patched by post, vote and delete events and reloaded after a TTL.
+ */
+@Slf4j
+@Component
+public class SubFeedIndex {
+
+    private static final FeedSort[] RANKED = {FeedSort.HOT, FeedSort.NEW, FeedSort.TOP};
+
+    private final PostRepository postRepository;
+    private final Executor taskExecutor;
+    private final Timer memoryTimer;
+    private final Timer mongoTimer;
+
+    // subId -> lists, least recently used first
+    private final LinkedHashMap<String, SubLists> subs = new LinkedHashMap<>(16, 0.75f, true);
+    // subs with a warm-up already queued
+    private final Set<String> warming = ConcurrentHashMap.newKeySet();
+
+    @Value("${app.feed.merge.depth:100}")
+    private int depth;
+
+    @Value("${app.feed.merge.max-subs:1000}")
+    private int maxSubs;
+
+    @Value("${app.feed.merge.ttl-ms:300000}")
+    private long ttlMillis;
+
+    @Value("${app.feed.merge.min-subscriptions:20}")
+    private int minSubscriptions;
+
+    public SubFeedIndex(PostRepository postRepository,
+                        @Qualifier("taskExecutor") Executor taskExecutor,
+                        MeterRegistry meterRegistry) {
+        this.postRepository = postRepository;
+        this.taskExecutor = taskExecutor;
+        this.memoryTimer = Timer.builder("feed.home.materialize").tag("path", "merge").register(meterRegistry);
+        this.mongoTimer = Timer.builder("feed.home.materialize").tag("path", "mongo").register(meterRegistry);
+    }
+
+    /**
+     * Ranked ids of the user's home feed, merged from per-sub lists. Falls back to a single
+     * MongoDB $in query when the merge does not apply (few subscriptions, unsupported sort).
+     */
+    public List<String> homeFeedIds(List<String> subIds, FeedSort sort, int limit) {
+        if (subIds.size() >= minSubscriptions && sort != FeedSort.CONTROVERSIAL) {
+            long start = System.nanoTime();
+            List<String> merged = merge(subIds, sort, limit);
+            memoryTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return merged;
+        }
+        return mongoTimer.record(() -> queryIds(subIds, sort, limit));
+    }
+
+    public void onPostCreated(Post post) {
+        SubLists lists = resident(post.getSubId());
+        if (lists != null) {
+            for (FeedSort sort : RANKED) {
+                lists.upsert(sort, post.getId(), sort.keyOf(post), depth);
+            }
+        }
+    }
+
+    /**
+     * A vote changes hot and top keys; a post below the cut-off can climb into the list
+     */
+    public void onVote(String postId, String subId, int voteCount, double hotScore) {
+        SubLists lists = subId != null ? resident(subId) : null;
+        if (lists != null) {
+            lists.upsert(FeedSort.HOT, postId, hotScore, depth);
+            lists.upsert(FeedSort.TOP, postId, voteCount, depth);
+        }
+    }
+
+    public void onHotScoreChanged(String postId, String subId, double hotScore) {
+        SubLists lists = subId != null ? resident(subId) : null;
+        if (lists != null) {
+            lists.upsert(FeedSort.HOT, postId, hotScore, depth);
+        }
+    }
+
+    public void onPostDeleted(String postId, String subId) {
+        SubLists lists = subId != null ? resident(subId) : null;
+        if (lists != null) {
+            lists.remove(postId);
+        }
+    }
+
+    /**
+     * Heap merge over resident lists plus one MongoDB source for the cold subs, which is read
+     * only as deep as a resident list. Lists hold depth entries while a snapshot wants limit,
+     * so a truncated list usually runs out first; everything merged up to its tail is exact,
+     * and the rest is read with one id-only keyset query past the last merged post.
+     */
+    private List<String> merge(List<String> subIds, FeedSort sort, int limit) {
+        long now = System.currentTimeMillis();
+        List<RankedList> sources = new ArrayList<>(subIds.size() + 1);
+        List<String> cold = new ArrayList<>();
+        for (String subId : subIds) {
+            SubLists lists = resident(subId);
+            RankedList list = lists != null ? lists.get(sort) : null;
+            if (list == null || list.loadedAtMillis + ttlMillis <= now || (list.truncated && list.size() == 0)) {
+                cold.add(subId);
+            } else if (list.size() > 0) {
+                sources.add(list);
+            }
+        }
+        if (!cold.isEmpty()) {
+            int coldDepth = Math.min(depth, limit);
+            sources.add(RankedList.of(queryRanking(cold, sort, coldDepth), sort, coldDepth, now));
+            warmLater(cold);
+        }
+
+        int k = sources.size();
+        int[] heap = new int[k];
+        int[] pos = new int[k];
+        int heapSize = 0;
+        for (int i = 0; i < k; i++) {
+            if (sources.get(i).size() > 0) {
+                heap[heapSize++] = i;
+            }
+        }
+        for (int i = heapSize / 2 - 1; i >= 0; i--) {
+            siftDown(heap, heapSize, i, sources, pos);
+        }
+
+        List<String> result = new ArrayList<>(limit);
+        while (heapSize > 0 && result.size() < limit) {
+            int top = heap[0];
+            RankedList list = sources.get(top);
+            result.add(list.ids[pos[top]]);
+            pos[top]++;
+            if (pos[top] < list.size()) {
+                siftDown(heap, heapSize, 0, sources, pos);
+            } else {
+                if (list.truncated && result.size() < limit) {
+                    // Unknown posts may rank between this list's tail and the next candidate
+                    int last = list.size() - 1;
+                    FeedCursor after = new FeedCursor(sort, list.keys[last], list.ids[last]);
+                    // In-memory keys can lag the stored ones, so the tail may repeat merged posts:
+                    // read as many extra ids as could be repeats and skip them
+                    Set<String> merged = new HashSet<>(result);
+                    for (String id : postRepository.findFeedIds(Criteria.where("subId").in(subIds), sort, after, limit)) {
+                        if (result.size() >= limit) {
+                            break;
+                        }
+                        if (merged.add(id)) {
+                            result.add(id);
+                        }
+                    }
+                    return result;
+                }
+                heap[0] = heap[--heapSize];
+                siftDown(heap, heapSize, 0, sources, pos);
+            }
+        }
+        return result;
+    }
+
+    private static void siftDown(int[] heap, int size, int i, List<RankedList> sources, int[] pos) {
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= size) {
+                return;
+            }
+            int best = left;
+            int right = left + 1;
+            if (right < size && before(sources, pos, heap[right], heap[left])) {
+                best = right;
+            }
+            if (!before(sources, pos, heap[best], heap[i])) {
+                return;
+            }
+            int tmp = heap[i];
+            heap[i] = heap[best];
+            heap[best] = tmp;
+            i = best;
+        }
+    }
+
+    /**
+     * Feed order: key descending, then _id descending (hex ObjectIds compare like their bytes)
+     */
+    private static boolean before(List<RankedList> sources, int[] pos, int a, int b) {
+        RankedList la = sources.get(a);
+        RankedList lb = sources.get(b);
+        int ia = pos[a];
+        int ib = pos[b];
+        int cmp = Double.compare(la.keys[ia], lb.keys[ib]);
+        if (cmp != 0) {
+            return cmp > 0;
+        }
+        return la.ids[ia].compareTo(lb.ids[ib]) > 0;
+    }
+
+    private SubLists resident(String subId) {
+        synchronized (subs) {
+            return subs.get(subId);
+        }
+    }
+
+    private void warmLater(List<String> subIds) {
+        List<String> toWarm = new ArrayList<>();
+        for (String subId : subIds) {
+            if (warming.add(subId)) {
+                toWarm.add(subId);
+            }
+        }
+        if (toWarm.isEmpty()) {
+            return;
+        }
+        try {
+            taskExecutor.execute(() -> {
+                try {
+                    for (String subId : toWarm) {
+                        warm(subId);
+                    }
+                } finally {
+                    warming.removeAll(toWarm);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            warming.removeAll(toWarm);
+        }
+    }
+
+    private void warm(String subId) {
+        long now = System.currentTimeMillis();
+        SubLists lists = new SubLists();
+        for (FeedSort sort : RANKED) {
+            lists.set(sort, RankedList.of(queryRanking(List.of(subId), sort, depth), sort, depth, now));
+        }
+        synchronized (subs) {
+            subs.put(subId, lists);
+            var it = subs.entrySet().iterator();
+            while (subs.size() > maxSubs && it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        }
+    }
+
+    private List<Post> queryRanking(List<String> subIds, FeedSort sort, int limit) {
+        return postRepository.findRankingBySubIdIn(subIds, PageRequest.of(0, limit, sort.toSort()));
+    }
+
+    private List<String> queryIds(List<String> subIds, FeedSort sort, int limit) {
+        List<Post> posts = postRepository.findIdsBySubIdIn(subIds, PageRequest.of(0, limit, sort.toSort()));
+        List<String> ids = new ArrayList<>(posts.size());
+        for (Post post : posts) {
+            ids.add(post.getId());
+        }
+        return ids;
+    }
+
+    /**
+     * Immutable ranked list: parallel id and key arrays in feed order
+     */
+    private static final class RankedList {
+        private final String[] ids;
+        private final double[] keys;
+        // True if the sub has more posts than the list holds
+        private final boolean truncated;
+        private final long loadedAtMillis;
+
+        private RankedList(String[] ids, double[] keys, boolean truncated, long loadedAtMillis) {
+            this.ids = ids;
+            this.keys = keys;
+            this.truncated = truncated;
+            this.loadedAtMillis = loadedAtMillis;
+        }
+
+        static RankedList of(List<Post> posts, FeedSort sort, int limit, long now) {
+            String[] ids = new String[posts.size()];
+            double[] keys = new double[posts.size()];
+            for (int i = 0; i < posts.size(); i++) {
+                ids[i] = posts.get(i).getId();
+                keys[i] = sort.keyOf(posts.get(i));
+            }
+            return new RankedList(ids, keys, posts.size() >= limit, now);
+        }
+
+        int size() {
+            return ids.length;
+        }
+
+        int indexOf(String id) {
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i].equals(id)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Copy with the post inserted or re-keyed, trimmed back to the depth
+         */
+        RankedList upsert(String id, double key, int depth) {
+            int existing = indexOf(id);
+            int n = ids.length - (existing >= 0 ? 1 : 0);
+            // Below the tail of a truncated list, unseen posts may outrank it - keep it out of the list
+            if (truncated && n > 0) {
+                double tailKey = existing == ids.length - 1 ? keys[ids.length - 2] : keys[ids.length - 1];
+                if (key < tailKey) {
+                    return existing >= 0 ? remove(id) : this;
+                }
+            }
+
+            String[] newIds = new String[n + 1];
+            double[] newKeys = new double[n + 1];
+            int out = 0;
+            boolean placed = false;
+            for (int i = 0; i < ids.length; i++) {
+                if (i == existing) {
+                    continue;
+                }
+                if (!placed && (key > keys[i] || (key == keys[i] && id.compareTo(ids[i]) > 0))) {
+                    newIds[out] = id;
+                    newKeys[out++] = key;
+                    placed = true;
+                }
+                newIds[out] = ids[i];
+                newKeys[out++] = keys[i];
+            }
+            if (!placed) {
+                newIds[out] = id;
+                newKeys[out++] = key;
+            }
+
+            if (out > depth) {
+                return new RankedList(Arrays.copyOf(newIds, depth), Arrays.copyOf(newKeys, depth), true, loadedAtMillis);
+            }
+            return new RankedList(newIds, newKeys, truncated, loadedAtMillis);
+        }
+
+        RankedList remove(String id) {
+            int index = indexOf(id);
+            if (index < 0) {
+                return this;
+            }
+            String[] newIds = new String[ids.length - 1];
+            double[] newKeys = new double[ids.length - 1];
+            System.arraycopy(ids, 0, newIds, 0, index);
+            System.arraycopy(keys, 0, newKeys, 0, index);
+            System.arraycopy(ids, index + 1, newIds, index, ids.length - index - 1);
+            System.arraycopy(keys, index + 1, newKeys, index, ids.length - index - 1);
+            return new RankedList(newIds, newKeys, truncated, loadedAtMillis);
+        }
+    }
+
+    /**
+     * The hot, new and top lists of one sub; each slot is swapped atomically
+     */
+    private static final class SubLists {
+        private final Map<FeedSort, RankedList> bySort = new ConcurrentHashMap<>();
+
+        RankedList get(FeedSort sort) {
+            return bySort.get(sort);
+        }
+
+        void set(FeedSort sort, RankedList list) {
+            bySort.put(sort, list);
+        }
+
+        void upsert(FeedSort sort, String id, double key, int depth) {
+            bySort.computeIfPresent(sort, (s, list) -> list.upsert(id, key, depth));
+        }
+
+        void remove(String id) {
+            bySort.replaceAll((s, list) -> list.remove(id));
+        }
+    }
+}
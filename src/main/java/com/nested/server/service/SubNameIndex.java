@@ -0,0 +1,46 @@
+package com.nested.server.service;
+
+import com.nested.server.model.Subs;
+import com.nested.server.repository.SubsRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves the sub name in feed URLs to the sub id that posts are indexed by. Sub names never
+ * change once created, so entries need no invalidation; only found names are cached, so a sub
+ * created after a miss is picked up on the next request.
+ */
+@Component
+@RequiredArgsConstructor
+public class SubNameIndex {
+
+    private final SubsRepository subsRepository;
+
+    // lower-cased sub name -> sub id
+    private final Map<String, String> ids = new ConcurrentHashMap<>();
+
+    @Value("${app.subs.name-index.max-entries:50000}")
+    private int maxEntries;
+
+    public Optional<String> subIdOf(String subName) {
+        String key = subName.toLowerCase(Locale.ROOT);
+        String subId = ids.get(key);
+        if (subId != null) {
+            return Optional.of(subId);
+        }
+        Optional<String> found = subsRepository.findByNameIgnoreCase(subName).map(Subs::getId);
+        found.ifPresent(id -> {
+            if (ids.size() >= maxEntries) {
+                ids.clear();
+            }
+            ids.put(key, id);
+        });
+        return found;
+    }
+}
@@ -14,8 +14,6 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
-import java.time.ZoneId;
-import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -120,7 +118,7 @@ public class SubService {
                 .iconUrl(sub.getIconUrl())
                 .creatorUsername(sub.getCreatorUsername())
                 .subscriberCount(sub.getSubscriberCount())
-                .createdAt(formatDate(sub.getCreatedAt()))
+                .createdAt(TimeFormat.date(sub.getCreatedAt()))
                 .isSubscribed(isSubscribed)
                 .rules(sub.getRules())
                 .flairs(sub.getFlairs())
@@ -218,12 +216,6 @@ public class SubService {
         subsRepository.removeModerator(subsId, moderatorId);
     }
 
-    private String formatDate(Instant instant) {
-        return DateTimeFormatter.ofPattern("MMM dd, yyyy")
-                .withZone(ZoneId.systemDefault())
-                .format(instant);
-    }
-
     /**
      * Migration method: Add all existing users to a Subs's subscriberIds.
      * This is a one-time fix to populate subscriberIds for existing data.
@@ -0,0 +1,80 @@
+package com.nested.server.service;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Shared date formatting for responses. Formatters are immutable and thread-safe, so they are
+ * built once instead of per item, and the relative "time ago" labels come from precomputed
+ * tables so formatting a feed does not build a string per post.
+ */
+public final class TimeFormat {
+
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm")
+            .withZone(ZoneId.systemDefault());
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("MMM dd, yyyy")
+            .withZone(ZoneId.systemDefault());
+
+    private static final long MINUTE_MS = 60_000L;
+    private static final long HOUR_MS = 60 * MINUTE_MS;
+    private static final long DAY_MS = 24 * HOUR_MS;
+
+    private static final String[] MINUTES_AGO = labels(60, "minute");
+    private static final String[] HOURS_AGO = labels(24, "hour");
+    private static final String[] DAYS_AGO = labels(30, "day");
+    private static final String[] MONTHS_AGO = labels(13, "month");
+    private static final String[] YEARS_AGO = labels(100, "year");
+
+    private TimeFormat() {
+    }
+
+    /**
+     * e.g. "Jan 05, 2026 14:30"
+     */
+    public static String dateTime(Instant instant) {
+        return DATE_TIME.format(instant);
+    }
+
+    /**
+     * e.g. "Jan 05, 2026"
+     */
+    public static String date(Instant instant) {
+        return DATE.format(instant);
+    }
+
+    public static String timeAgo(Instant instant) {
+        return timeAgo(instant, System.currentTimeMillis());
+    }
+
+    /**
+     * "just now", "5 minutes ago", "1 day ago"... relative to nowMillis, so a whole list
+     * can share one clock reading
+     */
+    public static String timeAgo(Instant instant, long nowMillis) {
+        long ageMillis = Math.max(0, nowMillis - instant.toEpochMilli());
+        if (ageMillis < MINUTE_MS) {
+            return "just now";
+        } else if (ageMillis < HOUR_MS) {
+            return MINUTES_AGO[(int) (ageMillis / MINUTE_MS)];
+        } else if (ageMillis < DAY_MS) {
+            return HOURS_AGO[(int) (ageMillis / HOUR_MS)];
+        }
+        long days = ageMillis / DAY_MS;
+        if (days < 30) {
+            return DAYS_AGO[(int) days];
+        } else if (days < 365) {
+            return MONTHS_AGO[(int) (days / 30)];
+        }
+        long years = days / 365;
+        return years < YEARS_AGO.length ? YEARS_AGO[(int) years] : years + " years ago";
+    }
+
+    private static String[] labels(int count, String unit) {
+        String[] labels = new String[count];
+        for (int i = 1; i < count; i++) {
+            labels[i] = i + " " + unit + (i == 1 ? " ago" : "s ago");
+        }
+        return labels;
+    }
+}
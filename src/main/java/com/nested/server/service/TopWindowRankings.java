@@ -0,0 +1,213 @@
+package com.nested.server.service;
+
+import com.nested.server.model.FeedSort;
+import com.nested.server.model.Post;
+import com.nested.server.model.TopWindow;
+import com.nested.server.repository.PostRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Precomputed "top" rankings for the bounded time windows (hour ... year), so a "top this week"
+ * request is served from a ranked id list instead of sorting a week of posts.
+ * Site-wide lists are rebuilt in the background, each window on its own cadence - an hour
+ * ranking goes stale in a minute, a year ranking barely moves in hours. Per-sub lists are built
+ * on first use (once per key, however many readers arrive together); after that a stale list is
+ * served while a single background refresh replaces it. All-time top is not held here: it is the plain
+ * voteCount ranking already served by the feed indexes and FrontPageSnapshots.
+ */
+@Slf4j
+@Component
+public class TopWindowRankings {
+
+    private static final TopWindow[] BOUNDED = {TopWindow.HOUR, TopWindow.DAY, TopWindow.WEEK, TopWindow.MONTH, TopWindow.YEAR};
+
+    private final PostRepository postRepository;
+    private final SubNameIndex subNameIndex;
+    private final Executor taskExecutor;
+
+    private final Map<TopWindow, Ranking> site = new ConcurrentHashMap<>();
+    // "window:subname" -> ranking, least recently used first
+    private final LinkedHashMap<String, Ranking> bySub = new LinkedHashMap<>(256, 0.75f, true);
+    private final Map<TopWindow, Long> refreshMillis = new EnumMap<>(TopWindow.class);
+    // keys with a first build in flight, which concurrent readers wait on
+    private final Map<String, CompletableFuture<Ranking>> building = new ConcurrentHashMap<>();
+    // keys with a background refresh already queued
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+    @Value("${app.feed.top.depth:1000}")
+    private int depth;
+
+    @Value("${app.feed.top.max-sub-rankings:2000}")
+    private int maxSubRankings;
+
+    @Value("${app.feed.top.refresh-ms.hour:60000}")
+    private long hourRefreshMillis;
+
+    @Value("${app.feed.top.refresh-ms.day:300000}")
+    private long dayRefreshMillis;
+
+    @Value("${app.feed.top.refresh-ms.week:900000}")
+    private long weekRefreshMillis;
+
+    @Value("${app.feed.top.refresh-ms.month:3600000}")
+    private long monthRefreshMillis;
+
+    @Value("${app.feed.top.refresh-ms.year:21600000}")
+    private long yearRefreshMillis;
+
+    public TopWindowRankings(PostRepository postRepository,
+                             SubNameIndex subNameIndex,
+                             @Qualifier("taskExecutor") Executor taskExecutor) {
+        this.postRepository = postRepository;
+        this.subNameIndex = subNameIndex;
+        this.taskExecutor = taskExecutor;
+    }
+
+    @PostConstruct
+    void init() {
+        refreshMillis.put(TopWindow.HOUR, hourRefreshMillis);
+        refreshMillis.put(TopWindow.DAY, dayRefreshMillis);
+        refreshMillis.put(TopWindow.WEEK, weekRefreshMillis);
+        refreshMillis.put(TopWindow.MONTH, monthRefreshMillis);
+        refreshMillis.put(TopWindow.YEAR, yearRefreshMillis);
+    }
+
+    /**
+     * Site-wide top post ids of a bounded window, best first, at most limit
+     */
+    public List<String> site(TopWindow window, int limit) {
+        Ranking ranking = site.get(window);
+        if (ranking == null) {
+            ranking = site.computeIfAbsent(window, this::loadSite);
+        }
+        return PackedIds.head(ranking.packed, limit);
+    }
+
+    /**
+     * Top post ids of a sub within a bounded window, best first, at most limit; empty for unknown subs
+     */
+    public List<String> sub(String subName, TopWindow window, int limit) {
+        String key = window.key() + ":" + subName.toLowerCase(Locale.ROOT);
+        Ranking ranking;
+        synchronized (this) {
+            ranking = bySub.get(key);
+        }
+        if (ranking != null) {
+            if (ranking.isStale(System.currentTimeMillis(), refreshMillis.get(window))) {
+                refreshLater(key, subName, window);
+            }
+            return PackedIds.head(ranking.packed, limit);
+        }
+
+        CompletableFuture<Ranking> mine = new CompletableFuture<>();
+        CompletableFuture<Ranking> inFlight = building.putIfAbsent(key, mine);
+        if (inFlight != null) {
+            return PackedIds.head(inFlight.join().packed, limit);
+        }
+        try {
+            ranking = loadSub(subName, window);
+            store(key, ranking);
+            mine.complete(ranking);
+            return PackedIds.head(ranking.packed, limit);
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            building.remove(key);
+        }
+    }
+
+    /**
+     * Background aggregator: rebuild each site-wide window once its refresh interval has passed
+     */
+    @Scheduled(fixedDelayString = "${app.feed.top.tick-ms:15000}")
+    public void refreshDue() {
+        long now = System.currentTimeMillis();
+        for (TopWindow window : BOUNDED) {
+            Ranking ranking = site.get(window);
+            if (ranking != null && !ranking.isStale(now, refreshMillis.get(window))) {
+                continue;
+            }
+            try {
+                site.put(window, loadSite(window));
+            } catch (Exception e) {
+                log.error("Failed to refresh top {} ranking: {}", window.key(), e.getMessage());
+            }
+        }
+    }
+
+    private void refreshLater(String key, String subName, TopWindow window) {
+        if (!refreshing.add(key)) {
+            return;
+        }
+        try {
+            taskExecutor.execute(() -> {
+                try {
+                    store(key, loadSub(subName, window));
+                } catch (Exception e) {
+                    log.error("Failed to refresh top {} ranking of {}: {}", window.key(), subName, e.getMessage());
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(key);
+        }
+    }
+
+    private synchronized void store(String key, Ranking ranking) {
+        bySub.put(key, ranking);
+        if (bySub.size() > maxSubRankings) {
+            var eldest = bySub.keySet().iterator();
+            eldest.next();
+            eldest.remove();
+        }
+    }
+
+    private Ranking loadSub(String subName, TopWindow window) {
+        long now = System.currentTimeMillis();
+        return new Ranking(subNameIndex.subIdOf(subName)
+                .map(id -> idsOf(postRepository.findIdsBySubIdCreatedSince(id, window.since(Instant.now()), topPage())))
+                .orElseGet(() -> new int[0]), now);
+    }
+
+    private Ranking loadSite(TopWindow window) {
+        return new Ranking(idsOf(postRepository.findIdsCreatedSince(window.since(Instant.now()), topPage())),
+                System.currentTimeMillis());
+    }
+
+    private PageRequest topPage() {
+        return PageRequest.of(0, depth, FeedSort.TOP.toSort());
+    }
+
+    private static int[] idsOf(List<Post> posts) {
+        return PackedIds.pack(posts.stream().map(Post::getId).toList());
+    }
+
+    /**
+     * Ids packed 12 bytes each (see PackedIds)
+     */
+    private record Ranking(int[] packed, long loadedAtMillis) {
+        boolean isStale(long now, long refreshMillis) {
+            return loadedAtMillis + refreshMillis <= now;
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.nested.server.service;
 
+import com.nested.server.exception.TooManyRequestsException;
 import dev.samstevens.totp.code.*;
+import dev.samstevens.totp.exceptions.CodeGenerationException;
 import dev.samstevens.totp.exceptions.QrGenerationException;
 import dev.samstevens.totp.qr.QrData;
 import dev.samstevens.totp.qr.QrGenerator;
@@ -10,26 +12,47 @@ import dev.samstevens.totp.secret.SecretGenerator;
 import dev.samstevens.totp.time.SystemTimeProvider;
 import dev.samstevens.totp.time.TimeProvider;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Slf4j
 @Service
 public class TwoFactorService {
 
     private static final String ISSUER = "Nested";
+    private static final int PERIOD_SECONDS = 30;
+    // Accept the previous and next step as well, to tolerate clock drift
+    private static final int ALLOWED_DRIFT_STEPS = 1;
+    private static final long MAX_LOCKOUT_MILLIS = 15 * 60 * 1000L;
+
     private final SecretGenerator secretGenerator;
     private final QrGenerator qrGenerator;
-    private final CodeVerifier codeVerifier;
+    private final CodeGenerator codeGenerator;
+    private final TimeProvider timeProvider;
+
+    // userId -> last accepted time step; a code is only accepted for a later step
+    private final Map<String, UsedStep> lastUsedSteps = new ConcurrentHashMap<>();
+    // userId -> consecutive failures and lockout
+    private final Map<String, Failures> failures = new ConcurrentHashMap<>();
+
+    @Value("${app.2fa.free-attempts:3}")
+    private int freeAttempts;
+
+    @Value("${app.2fa.base-lockout-ms:1000}")
+    private long baseLockoutMillis;
 
     public TwoFactorService() {
         this.secretGenerator = new DefaultSecretGenerator();
         this.qrGenerator = new ZxingPngQrGenerator();
-
-        TimeProvider timeProvider = new SystemTimeProvider();
-        CodeGenerator codeGenerator = new DefaultCodeGenerator();
-        this.codeVerifier = new DefaultCodeVerifier(codeGenerator, timeProvider);
+        this.timeProvider = new SystemTimeProvider();
+        this.codeGenerator = new DefaultCodeGenerator();
     }
 
     /**
@@ -63,13 +86,91 @@ public class TwoFactorService {
     }
 
     /**
-     * Verify a TOTP code against a secret
+     * Verify a TOTP code for a user.
+     * A code is accepted at most once (replays within its window are rejected), and after a few
+     * consecutive failures the user is locked out with exponential backoff before any HMAC is computed.
+     *
+     * @throws TooManyRequestsException if the user is currently locked out
      */
-    public boolean verifyCode(String secret, String code) {
-        if (secret == null || code == null || code.length() != 6) {
+    public boolean verifyCode(String userId, String secret, String code) {
+        long now = System.currentTimeMillis();
+        Failures current = failures.get(userId);
+        if (current != null && current.lockedUntilMillis > now) {
+            throw new TooManyRequestsException("Too many invalid codes, please wait before trying again",
+                    Math.max(1, (current.lockedUntilMillis - now + 999) / 1000));
+        }
+
+        long step = matchingStep(secret, code);
+        if (step < 0 || !markUsed(userId, step, now)) {
+            recordFailure(userId, now);
             return false;
         }
-        return codeVerifier.isValidCode(secret, code);
+
+        failures.remove(userId);
+        return true;
+    }
+
+    /**
+     * Returns the time step the code belongs to, or -1 if it matches none in the allowed window
+     */
+    private long matchingStep(String secret, String code) {
+        if (secret == null || code == null || code.length() != 6) {
+            return -1;
+        }
+        byte[] given = code.getBytes(StandardCharsets.US_ASCII);
+        long currentStep = Math.floorDiv(timeProvider.getTime(), PERIOD_SECONDS);
+        long matched = -1;
+        try {
+            // Check every step so timing does not reveal which one matched
+            for (long step = currentStep - ALLOWED_DRIFT_STEPS; step <= currentStep + ALLOWED_DRIFT_STEPS; step++) {
+                byte[] expected = codeGenerator.generate(secret, step).getBytes(StandardCharsets.US_ASCII);
+                if (MessageDigest.isEqual(expected, given)) {
+                    matched = step;
+                }
+            }
+        } catch (CodeGenerationException e) {
+            log.warn("Failed to generate TOTP code: {}", e.getMessage());
+            return -1;
+        }
+        return matched;
+    }
+
+    /**
+     * Atomically record the step as used; false if this or a later step was already accepted
+     */
+    private boolean markUsed(String userId, long step, long now) {
+        long expiresAt = now + (2L * ALLOWED_DRIFT_STEPS + 1) * PERIOD_SECONDS * 1000;
+        boolean[] accepted = new boolean[1];
+        lastUsedSteps.compute(userId, (id, used) -> {
+            if (used != null && used.expiresAtMillis > now && used.step >= step) {
+                return used;
+            }
+            accepted[0] = true;
+            return new UsedStep(step, expiresAt);
+        });
+        return accepted[0];
+    }
+
+    private void recordFailure(String userId, long now) {
+        failures.compute(userId, (id, previous) -> {
+            int count = previous == null ? 1 : previous.count + 1;
+            long lockedUntil = 0;
+            if (count > freeAttempts) {
+                int doublings = Math.min(count - freeAttempts - 1, 20);
+                lockedUntil = now + Math.min(baseLockoutMillis << doublings, MAX_LOCKOUT_MILLIS);
+            }
+            return new Failures(count, lockedUntil, now);
+        });
+    }
+
+    /**
+     * Drop replay entries past their window and failure counters that have gone quiet
+     */
+    @Scheduled(fixedDelayString = "${app.2fa.cleanup-ms:60000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        lastUsedSteps.values().removeIf(used -> used.expiresAtMillis <= now);
+        failures.values().removeIf(f -> f.lockedUntilMillis <= now && f.lastFailureMillis + MAX_LOCKOUT_MILLIS <= now);
     }
 
     /**
@@ -84,4 +185,10 @@ public class TwoFactorService {
         }
         return formatted.toString();
     }
+
+    private record UsedStep(long step, long expiresAtMillis) {
+    }
+
+    private record Failures(int count, long lockedUntilMillis, long lastFailureMillis) {
+    }
 }
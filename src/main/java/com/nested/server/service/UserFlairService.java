@@ -14,8 +14,6 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
-import java.time.ZoneId;
-import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -153,13 +151,7 @@ public class UserFlairService {
                 .backgroundColor(flair.getBackgroundColor())
                 .assignedByUsername(flair.getAssignedByUsername())
                 .userEditable(flair.isUserEditable())
-                .createdAt(formatDate(flair.getCreatedAt()))
+                .createdAt(TimeFormat.dateTime(flair.getCreatedAt()))
                 .build();
     }
-
-    private String formatDate(Instant instant) {
-        return DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm")
-                .withZone(ZoneId.systemDefault())
-                .format(instant);
-    }
 }
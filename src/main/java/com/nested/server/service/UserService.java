@@ -4,6 +4,7 @@ import com.nested.server.exception.BadRequestException;
 import com.nested.server.exception.ResourceNotFoundException;
 import com.nested.server.model.User;
 import com.nested.server.repository.UserRepository;
+import com.nested.server.security.TokenVersionRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.jspecify.annotations.NullMarked;
@@ -12,7 +13,6 @@ import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
@@ -29,13 +29,18 @@ public class UserService implements UserDetailsService {
     private static final int MAX_URL_LENGTH = 2048;
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
+    private final UserSnapshotCache userSnapshotCache;
+    private final TokenVersionRegistry tokenVersionRegistry;
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByUsername(username)
+        User user = findCachedByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
+        return toUserDetails(user);
+    }
 
+    public UserDetails toUserDetails(User user) {
         return new org.springframework.security.core.userdetails.User(
                 user.getUsername(),
                 user.getPassword(),
@@ -49,6 +54,27 @@ public class UserService implements UserDetailsService {
         return userRepository.findByUsername(username);
     }
 
+    /**
+     * Lookup for the authenticated user - served from the short-TTL snapshot cache.
+     * The returned instance is shared, callers must not mutate it.
+     */
+    public Optional<User> findCachedByUsername(String username) {
+        User cached = userSnapshotCache.get(username);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<User> user = userRepository.findByUsername(username);
+        user.ifPresent(userSnapshotCache::put);
+        return user;
+    }
+
+    /**
+     * Drop the cached snapshot after a write that bypasses this service (e.g. 2FA changes)
+     */
+    public void evictCachedUser(String userId) {
+        userSnapshotCache.evict(userId);
+    }
+
     public Optional<User> findById(String id) {
         return userRepository.findById(id);
     }
@@ -64,6 +90,7 @@ public class UserService implements UserDetailsService {
     public void updateKarma(String userId, int delta) {
         try {
             userRepository.incrementKarma(userId, delta);
+            userSnapshotCache.evict(userId);
             log.debug("Updated karma for user {} by {}", userId, delta);
         } catch (Exception e) {
             log.error("Failed to update karma for user {}: {}", userId, e.getMessage());
@@ -75,6 +102,7 @@ public class UserService implements UserDetailsService {
      */
     public void subscribeToSubs(String userId, String subsId) {
         userRepository.addSubscription(userId, subsId);
+        userSnapshotCache.evict(userId);
     }
 
     /**
@@ -82,6 +110,7 @@ public class UserService implements UserDetailsService {
      */
     public void unsubscribeFromSubs(String userId, String subsId) {
         userRepository.removeSubscription(userId, subsId);
+        userSnapshotCache.evict(userId);
     }
 
     public User updateProfile(String userId, Map<String, String> updates) {
@@ -103,14 +132,20 @@ public class UserService implements UserDetailsService {
             user.setAvatarUrl(avatarUrl);
         }
 
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        userSnapshotCache.evict(userId);
+        return saved;
     }
 
-    public void changePassword(String userId, String currentPassword, String newPassword) {
+    /**
+     * Change the password and invalidate every other session.
+     * Returns the updated user so the caller can issue a fresh token for the current session.
+     */
+    public User changePassword(String userId, String currentPassword, String newPassword) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
 
-        if (!passwordEncoder.matches(currentPassword, user.getPassword())) {
+        if (!passwordHashingService.matches(currentPassword, user.getPassword())) {
             throw new BadRequestException("Current password is incorrect");
         }
 
@@ -118,8 +153,11 @@ public class UserService implements UserDetailsService {
             throw new BadRequestException("New password must be at least 6 characters");
         }
 
-        user.setPassword(passwordEncoder.encode(newPassword));
-        userRepository.save(user);
+        user.setPassword(passwordHashingService.encode(newPassword));
+        bumpTokenVersion(user);
+        User saved = userRepository.save(user);
+        userSnapshotCache.evict(userId);
+        return saved;
     }
 
     public void initiatePasswordReset(String email) {
@@ -147,25 +185,30 @@ public class UserService implements UserDetailsService {
             throw new BadRequestException("New password must be at least 6 characters");
         }
 
-        user.setPassword(passwordEncoder.encode(newPassword));
+        user.setPassword(passwordHashingService.encode(newPassword));
         user.setResetToken(null);
         user.setResetTokenExpiry(null);
+        bumpTokenVersion(user);
         userRepository.save(user);
+        userSnapshotCache.evict(user.getId());
     }
 
     /**
-     * Atomic toggle for saved posts - no read-modify-write pattern
+     * Disable an account - its outstanding tokens stop working immediately on every node
      */
-    public boolean toggleSavePost(String userId, String postId) {
-        boolean isSaved = userRepository.isPostSaved(userId, postId);
+    public void disableAccount(String userId) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
 
-        if (isSaved) {
-            userRepository.removeSavedPost(userId, postId);
-            return false;
-        } else {
-            userRepository.addSavedPost(userId, postId);
-            return true;
-        }
+        userRepository.disableAccount(userId, Instant.now());
+        tokenVersionRegistry.record(userId, user.getTokenVersion() + 1, false);
+        userSnapshotCache.evict(userId);
+    }
+
+    private void bumpTokenVersion(User user) {
+        user.setTokenVersion(user.getTokenVersion() + 1);
+        user.setCredentialsChangedAt(Instant.now());
+        tokenVersionRegistry.record(user.getId(), user.getTokenVersion(), user.isEnabled());
     }
 
     /**
@@ -176,11 +219,11 @@ public class UserService implements UserDetailsService {
 
         if (isHidden) {
             userRepository.removeHiddenPost(userId, postId);
-            return false;
         } else {
             userRepository.addHiddenPost(userId, postId);
-            return true;
         }
+        userSnapshotCache.evict(userId);
+        return !isHidden;
     }
 
     /**
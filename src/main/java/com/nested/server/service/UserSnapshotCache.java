@@ -0,0 +1,83 @@
+package com.nested.server.service;
+
+import com.nested.server.model.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Short-lived, size-bounded cache of User documents for authenticated requests.
+ * Entries expire after a few seconds and are evicted explicitly whenever
+ * UserService writes to the user, so readers never see a stale profile for long.
+ */
+@Component
+public class UserSnapshotCache {
+
+    private final Map<String, Entry> byUsername = new ConcurrentHashMap<>();
+    private final Map<String, String> usernameById = new ConcurrentHashMap<>();
+
+    @Value("${app.user-cache.ttl-ms:30000}")
+    private long ttlMillis;
+
+    @Value("${app.user-cache.max-size:10000}")
+    private int maxSize;
+
+    public User get(String username) {
+        Entry entry = byUsername.get(username);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAtMillis <= System.currentTimeMillis()) {
+            evictUsername(username);
+            return null;
+        }
+        return entry.user;
+    }
+
+    public void put(User user) {
+        if (byUsername.size() >= maxSize) {
+            trim();
+        }
+        byUsername.put(user.getUsername(), new Entry(user, System.currentTimeMillis() + ttlMillis));
+        usernameById.put(user.getId(), user.getUsername());
+    }
+
+    /**
+     * Evict by user id - used after any write to the users collection
+     */
+    public void evict(String userId) {
+        String username = usernameById.remove(userId);
+        if (username != null) {
+            byUsername.remove(username);
+        }
+    }
+
+    private void evictUsername(String username) {
+        Entry removed = byUsername.remove(username);
+        if (removed != null) {
+            usernameById.remove(removed.user.getId());
+        }
+    }
+
+    /**
+     * Drop expired entries first, then arbitrary ones until we are back under a quarter of headroom
+     */
+    private void trim() {
+        long now = System.currentTimeMillis();
+        byUsername.values().removeIf(entry -> entry.expiresAtMillis <= now);
+
+        Iterator<Map.Entry<String, Entry>> it = byUsername.entrySet().iterator();
+        int target = maxSize - maxSize / 4;
+        while (byUsername.size() > target && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+        usernameById.values().retainAll(byUsername.keySet());
+    }
+
+    private record Entry(User user, long expiresAtMillis) {
+    }
+}
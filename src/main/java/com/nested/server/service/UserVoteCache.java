@@ -0,0 +1,310 @@
+package com.nested.server.service;
+
+import com.nested.server.model.Vote;
+import com.nested.server.repository.VoteRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-user vote state for rendering feeds and comment pages without a vote query per request.
+ * Each user's known votes - including "no vote" - live in small open-addressing tables keyed
+ * by the target ObjectId packed into a long and an int, with a byte per value. Tables start
+ * small and double as votes arrive, up to entries-per-user: when the current table is full at
+ * that size it becomes the previous generation and a fresh small one starts, so recently used
+ * entries survive while old ones age out. Users are kept
+ * in LRU order up to max-users. VoteService writes through on every vote.
+ * The cache is per node, so entries also expire after ttl-ms to pick up votes cast elsewhere.
+ */
+@Component
+public class UserVoteCache {
+
+    private static final int NOT_CACHED = Integer.MIN_VALUE;
+
+    private final VoteRepository voteRepository;
+    private final Counter hits;
+    private final Counter misses;
+
+    // userId -> votes, in access order so the least recently active user is evicted first
+    private final LinkedHashMap<String, UserVotes> users = new LinkedHashMap<>(256, 0.75f, true);
+
+    @Value("${app.votes.cache.max-users:5000}")
+    private int maxUsers;
+
+    @Value("${app.votes.cache.entries-per-user:256}")
+    private int entriesPerUser;
+
+    @Value("${app.votes.cache.ttl-ms:600000}")
+    private long ttlMillis;
+
+    public UserVoteCache(VoteRepository voteRepository, MeterRegistry meterRegistry) {
+        this.voteRepository = voteRepository;
+        this.hits = Counter.builder("votes.cache.lookups").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("votes.cache.lookups").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("votes.cache.users", this, cache -> cache.size()).register(meterRegistry);
+    }
+
+    /**
+     * The user's votes (1 or -1) on the given targets; targets without a vote are absent.
+     * Only targets not already cached are queried, and the answers are cached.
+     */
+    public Map<String, Integer> votesFor(String userId, Collection<String> targetIds) {
+        Map<String, Integer> votes = new HashMap<>();
+        if (targetIds.isEmpty()) {
+            return votes;
+        }
+
+        UserVotes userVotes = userVotes(userId, true);
+        List<String> missing = new ArrayList<>();
+        for (String targetId : targetIds) {
+            int vote = userVotes.get(targetId);
+            if (vote == NOT_CACHED) {
+                missing.add(targetId);
+            } else if (vote != 0) {
+                votes.put(targetId, vote);
+            }
+        }
+        hits.increment(targetIds.size() - missing.size());
+        if (missing.isEmpty()) {
+            return votes;
+        }
+
+        misses.increment(missing.size());
+        Map<String, Integer> loaded = new HashMap<>();
+        for (Vote vote : voteRepository.findByUserIdAndTargetIdIn(userId, missing)) {
+            loaded.put(vote.getTargetId(), vote.getVoteType().getValue());
+        }
+        for (String targetId : missing) {
+            int vote = loaded.getOrDefault(targetId, 0);
+            // Never overwrite: a vote written through while we were querying is newer than our read
+            userVotes.putIfAbsent(targetId, vote);
+            if (vote != 0) {
+                votes.put(targetId, vote);
+            }
+        }
+        return votes;
+    }
+
+    /**
+     * Whether this user's votes are already cached; cold users are better served by joining
+     * votes into the feed query itself (see PostFeedRepository.findFeedWithVotes)
+     */
+    public boolean isCached(String userId) {
+        return userVotes(userId, false) != null;
+    }
+
+    /**
+     * Record votes fetched elsewhere: every target in targetIds either has its entry in votes
+     * or is known to have no vote
+     */
+    public void prime(String userId, Collection<String> targetIds, Map<String, Integer> votes) {
+        UserVotes userVotes = userVotes(userId, true);
+        for (String targetId : targetIds) {
+            userVotes.putIfAbsent(targetId, votes.getOrDefault(targetId, 0));
+        }
+    }
+
+    /**
+     * Write-through from VoteService; vote is 1, -1 or 0 for a removed vote.
+     * Users with nothing cached are skipped - they will be loaded on their next read.
+     */
+    public void onVote(String userId, String targetId, int vote) {
+        UserVotes userVotes = userVotes(userId, false);
+        if (userVotes != null) {
+            userVotes.put(targetId, vote);
+        }
+    }
+
+    private synchronized int size() {
+        return users.size();
+    }
+
+    private synchronized UserVotes userVotes(String userId, boolean create) {
+        UserVotes userVotes = users.get(userId);
+        long now = System.currentTimeMillis();
+        if (userVotes != null && userVotes.createdAtMillis + ttlMillis <= now) {
+            users.remove(userId);
+            userVotes = null;
+        }
+        if (userVotes == null && create) {
+            userVotes = new UserVotes(entriesPerUser, now);
+            users.put(userId, userVotes);
+            if (users.size() > maxUsers) {
+                var eldest = users.keySet().iterator();
+                eldest.next();
+                eldest.remove();
+            }
+        }
+        return userVotes;
+    }
+
+    /**
+     * Two generations of vote tables for one user. Lookups that hit the previous generation
+     * are copied forward, so entries in use keep surviving rotations.
+     */
+    private static final class UserVotes {
+        private final int capacity;
+        private final long createdAtMillis;
+        private VoteTable current;
+        private VoteTable previous;
+
+        private UserVotes(int capacity, long createdAtMillis) {
+            this.capacity = capacity;
+            this.createdAtMillis = createdAtMillis;
+            this.current = new VoteTable(capacity);
+        }
+
+        synchronized int get(String targetId) {
+            if (!ObjectId.isValid(targetId)) {
+                return NOT_CACHED;
+            }
+            long high = high(targetId);
+            int low = low(targetId);
+            int vote = current.get(high, low);
+            if (vote == NOT_CACHED && previous != null) {
+                vote = previous.get(high, low);
+                if (vote != NOT_CACHED) {
+                    store(high, low, vote, true);
+                }
+            }
+            return vote;
+        }
+
+        synchronized void put(String targetId, int vote) {
+            if (ObjectId.isValid(targetId)) {
+                store(high(targetId), low(targetId), vote, true);
+            }
+        }
+
+        synchronized void putIfAbsent(String targetId, int vote) {
+            if (ObjectId.isValid(targetId)) {
+                long high = high(targetId);
+                int low = low(targetId);
+                if (current.get(high, low) == NOT_CACHED
+                        && (previous == null || previous.get(high, low) == NOT_CACHED)) {
+                    store(high, low, vote, false);
+                }
+            }
+        }
+
+        private void store(long high, int low, int vote, boolean overwrite) {
+            if (!current.put(high, low, vote, overwrite)) {
+                previous = current;
+                current = new VoteTable(capacity);
+                current.put(high, low, vote, true);
+            }
+        }
+
+        private static long high(String objectId) {
+            return Long.parseUnsignedLong(objectId, 0, 16, 16);
+        }
+
+        private static int low(String objectId) {
+            return Integer.parseUnsignedInt(objectId, 16, 24, 16);
+        }
+    }
+
+    /**
+     * Open-addressing hash table from a 12-byte id (long + int) to a vote byte, filled to 75%.
+     * 13 bytes per slot; starts at 16 slots and doubles until it can hold the entries it was sized for.
+     */
+    private static final class VoteTable {
+        // Stored as vote + 2 so that 0 marks an empty slot
+        private static final byte EMPTY = 0;
+
+        private static final int INITIAL_SLOTS = 16;
+
+        private final int maxSlots;
+        private long[] highs;
+        private int[] lows;
+        private byte[] values;
+        private int mask;
+        private int maxSize;
+        private int size;
+
+        private VoteTable(int entries) {
+            this.maxSlots = Integer.highestOneBit(Math.max(INITIAL_SLOTS, entries * 4 / 3) - 1) << 1;
+            allocate(INITIAL_SLOTS);
+        }
+
+        int get(long high, int low) {
+            for (int slot = slot(high, low); ; slot = (slot + 1) & mask) {
+                if (values[slot] == EMPTY) {
+                    return NOT_CACHED;
+                }
+                if (highs[slot] == high && lows[slot] == low) {
+                    return values[slot] - 2;
+                }
+            }
+        }
+
+        /**
+         * Returns false when the table is full and the key is not already present
+         */
+        boolean put(long high, int low, int vote, boolean overwrite) {
+            for (int slot = slot(high, low); ; slot = (slot + 1) & mask) {
+                if (values[slot] == EMPTY) {
+                    if (size >= maxSize) {
+                        if (values.length >= maxSlots) {
+                            return false;
+                        }
+                        grow();
+                        return put(high, low, vote, overwrite);
+                    }
+                    highs[slot] = high;
+                    lows[slot] = low;
+                    values[slot] = (byte) (vote + 2);
+                    size++;
+                    return true;
+                }
+                if (highs[slot] == high && lows[slot] == low) {
+                    if (overwrite) {
+                        values[slot] = (byte) (vote + 2);
+                    }
+                    return true;
+                }
+            }
+        }
+
+        private void grow() {
+            long[] oldHighs = highs;
+            int[] oldLows = lows;
+            byte[] oldValues = values;
+            allocate(oldValues.length * 2);
+            for (int i = 0; i < oldValues.length; i++) {
+                if (oldValues[i] != EMPTY) {
+                    int slot = slot(oldHighs[i], oldLows[i]);
+                    while (values[slot] != EMPTY) {
+                        slot = (slot + 1) & mask;
+                    }
+                    highs[slot] = oldHighs[i];
+                    lows[slot] = oldLows[i];
+                    values[slot] = oldValues[i];
+                }
+            }
+        }
+
+        private void allocate(int slots) {
+            this.highs = new long[slots];
+            this.lows = new int[slots];
+            this.values = new byte[slots];
+            this.mask = slots - 1;
+            this.maxSize = slots * 3 / 4;
+        }
+
+        private int slot(long high, int low) {
+            long hash = (high ^ (high >>> 32) ^ low) * 0x9E3779B97F4A7C15L;
+            return (int) (hash >>> 40) & mask;
+        }
+    }
+}
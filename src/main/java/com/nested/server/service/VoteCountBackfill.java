@@ -0,0 +1,171 @@
+package com.nested.server.service;
+
+import com.nested.server.model.Comment;
+import com.nested.server.model.Post;
+import com.nested.server.model.Vote;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.GroupOperation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Recomputes ups, downs and controversyScore of posts and comments from the votes collection.
+ * Posts and comments that predate the counters are always filled in at startup, since the
+ * controversial feed cannot page past documents without a controversyScore. A full recount of
+ * every target only runs when app.votes.backfill-counters is set, to repair drift.
+ * Votes are grouped by aggregation and written back in unordered bulk batches.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class VoteCountBackfill {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${app.votes.backfill-counters:false}")
+    private boolean enabled;
+
+    /**
+     * Fill in counters on posts and comments that do not have them yet, counting the
+     * votes of just those targets
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillMissing() {
+        int updated = backfillMissing(Post.class, Vote.VoteTargetType.POST)
+                + backfillMissing(Comment.class, Vote.VoteTargetType.COMMENT);
+        if (updated > 0) {
+            log.info("Backfilled vote counters on {} posts and comments without them", updated);
+        }
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (!enabled) {
+            return;
+        }
+        TypedAggregation<Vote> aggregation = Aggregation.newAggregation(Vote.class,
+                countUpsAndDowns(Aggregation.group("targetId", "targetType")))
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+
+        int updated = 0;
+        BulkOperations posts = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Post.class);
+        BulkOperations comments = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Comment.class);
+        int pendingPosts = 0;
+        int pendingComments = 0;
+        try (Stream<Document> counts = mongoTemplate.aggregateStream(aggregation, Document.class)) {
+            for (Document row : (Iterable<Document>) counts::iterator) {
+                Document target = row.get("_id", Document.class);
+                int ups = row.getInteger("ups", 0);
+                int downs = row.getInteger("downs", 0);
+                Query query = new Query(Criteria.where("_id").is(target.getString("targetId")));
+                Update update = new Update()
+                        .set("ups", ups)
+                        .set("downs", downs)
+                        .set("controversyScore", ControversyScore.of(ups, downs));
+
+                if (Vote.VoteTargetType.POST.name().equals(target.getString("targetType"))) {
+                    posts.updateOne(query, update);
+                    if (++pendingPosts == BATCH_SIZE) {
+                        updated += posts.execute().getModifiedCount();
+                        posts = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Post.class);
+                        pendingPosts = 0;
+                    }
+                } else {
+                    comments.updateOne(query, update);
+                    if (++pendingComments == BATCH_SIZE) {
+                        updated += comments.execute().getModifiedCount();
+                        comments = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Comment.class);
+                        pendingComments = 0;
+                    }
+                }
+            }
+        }
+        if (pendingPosts > 0) {
+            updated += posts.execute().getModifiedCount();
+        }
+        if (pendingComments > 0) {
+            updated += comments.execute().getModifiedCount();
+        }
+        log.info("Backfilled vote counters on {} posts and comments", updated);
+    }
+
+    private int backfillMissing(Class<?> type, Vote.VoteTargetType targetType) {
+        int updated = 0;
+        Object lastId = null;
+        while (true) {
+            // ups as well: the score reconcile may already have written a score from missing counts
+            Query query = new Query(new Criteria().orOperator(
+                    Criteria.where("controversyScore").exists(false), Criteria.where("ups").exists(false)))
+                    .limit(BATCH_SIZE).with(Sort.by("_id"));
+            if (lastId != null) {
+                query.addCriteria(Criteria.where("_id").gt(lastId));
+            }
+            query.fields().include("_id");
+            List<Document> batch = mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(type));
+            if (batch.isEmpty()) {
+                return updated;
+            }
+
+            Map<Object, String> ids = new LinkedHashMap<>();
+            for (Document target : batch) {
+                Object rawId = target.get("_id");
+                ids.put(rawId, rawId instanceof ObjectId objectId ? objectId.toHexString() : rawId.toString());
+            }
+            TypedAggregation<Vote> aggregation = Aggregation.newAggregation(Vote.class,
+                    Aggregation.match(Criteria.where("targetId").in(ids.values()).and("targetType").is(targetType.name())),
+                    countUpsAndDowns(Aggregation.group("targetId")));
+            Map<String, Document> counts = new HashMap<>();
+            for (Document row : mongoTemplate.aggregate(aggregation, Document.class).getMappedResults()) {
+                counts.put(row.getString("_id"), row);
+            }
+
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, type);
+            ids.forEach((rawId, id) -> {
+                Document row = counts.get(id);
+                int ups = row != null ? row.getInteger("ups", 0) : 0;
+                int downs = row != null ? row.getInteger("downs", 0) : 0;
+                bulk.updateOne(new Query(Criteria.where("_id").is(rawId)), new Update()
+                        .set("ups", ups)
+                        .set("downs", downs)
+                        .set("controversyScore", ControversyScore.of(ups, downs)));
+            });
+            bulk.execute();
+            updated += batch.size();
+            lastId = batch.get(batch.size() - 1).get("_id");
+        }
+    }
+
+    private static GroupOperation countUpsAndDowns(GroupOperation group) {
+        return group
+                .sum(ConditionalOperators.when(Criteria.where("voteType").is(Vote.VoteType.UPVOTE.name()))
+                        .then(1).otherwise(0)).as("ups")
+                .sum(ConditionalOperators.when(Criteria.where("voteType").is(Vote.VoteType.DOWNVOTE.name()))
+                        .then(1).otherwise(0)).as("downs");
+    }
+}
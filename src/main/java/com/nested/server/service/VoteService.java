@@ -23,6 +23,10 @@ public class VoteService {
     private final PostRepository postRepository;
     private final CommentRepository commentRepository;
     private final UserService userService;
+    private final FrontPageSnapshots frontPageSnapshots;
+    private final SubFeedIndex subFeedIndex;
+    private final UserVoteCache userVoteCache;
+    private final RisingPosts risingPosts;
 
     /**
      * Optimized vote operation - reduced from 5 DB ops to 2-3:
@@ -67,19 +71,36 @@ public class VoteService {
             voteChange = request.getVoteType().getValue();
         }
 
+        // The user's vote after this request: 0 when the same vote was toggled off
+        int userVote = existingVote.isPresent() &&
+                       existingVote.get().getVoteType() == request.getVoteType()
+                       ? 0 : request.getVoteType().getValue();
+        int upsChange = (userVote == 1 ? 1 : 0) - (previousVote == 1 ? 1 : 0);
+        int downsChange = (userVote == -1 ? 1 : 0) - (previousVote == -1 ? 1 : 0);
+
         // Query 2: Atomic increment on target + get author ID in one operation
         String authorId;
         int newVoteCount;
 
         if (targetType == Vote.VoteTargetType.POST) {
             // Use atomic increment and return updated count
-            postRepository.incrementVoteCount(targetId, voteChange);
-            var post = postRepository.findAuthorIdAndVoteCountById(targetId);
+            postRepository.incrementVotes(targetId, voteChange, upsChange, downsChange);
+            var post = postRepository.findVoteStateById(targetId);
+            post.ifPresent(p -> {
+                double hotScore = HotScore.of(p.getVoteCount(), p.getCommentCount(), p.getCreatedAt());
+                postRepository.updateScores(targetId, hotScore, ControversyScore.of(p.getUps(), p.getDowns()));
+                frontPageSnapshots.onVote(targetId, p.getVoteCount(), hotScore);
+                subFeedIndex.onVote(targetId, p.getSubId(), p.getVoteCount(), hotScore);
+                if (upsChange > 0) {
+                    risingPosts.onUpvote(targetId, p.getSubId(), p.getCreatedAt());
+                }
+            });
             authorId = post.map(p -> p.getAuthorId()).orElse(null);
             newVoteCount = post.map(p -> p.getVoteCount()).orElse(0);
         } else {
-            commentRepository.incrementVoteCount(targetId, voteChange);
+            commentRepository.incrementVotes(targetId, voteChange, upsChange, downsChange);
             var comment = commentRepository.findAuthorIdAndVoteCountById(targetId);
+            comment.ifPresent(c -> commentRepository.updateControversyScore(targetId, ControversyScore.of(c.getUps(), c.getDowns())));
             authorId = comment.map(c -> c.getAuthorId()).orElse(null);
             newVoteCount = comment.map(c -> c.getVoteCount()).orElse(0);
         }
@@ -90,9 +111,7 @@ public class VoteService {
         }
 
         // Return result with new vote count and user's current vote
-        int userVote = existingVote.isPresent() &&
-                       existingVote.get().getVoteType() == request.getVoteType()
-                       ? 0 : request.getVoteType().getValue();
+        userVoteCache.onVote(user.getId(), targetId, userVote);
 
         return new VoteResult(newVoteCount, userVote);
     }
@@ -0,0 +1,159 @@
+package com.nested.server.dto;
+
+import com.nested.server.model.Post;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Heap bytes allocated per post to render a feed page: the mapping feeds used before PostFeed
+ * (a PostResponse per post with a DateTimeFormatter built per item, then Jackson over the list)
+ * against PostFeed.Serializer writing the entities directly. Measured with the per-thread
+ * allocation counter AllocationSampler uses. Results depend on the JIT, so this runs with
+ * ./gradlew benchmark rather than with the tests, which logs the numbers.
+ */
+@Tag("benchmark")
+class PostFeedAllocationBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(PostFeedAllocationBenchmark.class);
+
+    private static final int PAGE_SIZE = 25;
+    private static final int WARMUP_PAGES = 20_000;
+    private static final int MEASURED_PAGES = 5_000;
+
+    private final JsonMapper mapper = JsonMapper.builder().build();
+
+    @Test
+    void bytesPerPost() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled());
+
+        List<Post> posts = page();
+        Map<String, Integer> votes = new HashMap<>();
+        votes.put(posts.get(0).getId(), 1);
+        votes.put(posts.get(3).getId(), -1);
+
+        Supplier<Object> responses = () -> {
+            List<PostResponse> mapped = new ArrayList<>(posts.size());
+            for (Post post : posts) {
+                mapped.add(baselineResponse(post, votes.get(post.getId())));
+            }
+            return mapped;
+        };
+        Supplier<Object> feed = () -> new PostFeed(posts, votes);
+
+        log.info("PostResponse + Jackson: {} B/post", Math.round(measure(responses)));
+        log.info("PostFeed.Serializer: {} B/post", Math.round(measure(feed)));
+    }
+
+    private double measure(Supplier<Object> body) {
+        for (int i = 0; i < WARMUP_PAGES; i++) {
+            mapper.writeValue(OutputStream.nullOutputStream(), body.get());
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long start = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < MEASURED_PAGES; i++) {
+            mapper.writeValue(OutputStream.nullOutputStream(), body.get());
+        }
+        return (double) (threads.getCurrentThreadAllocatedBytes() - start) / MEASURED_PAGES / PAGE_SIZE;
+    }
+
+    /**
+     * PostService.mapToResponse as it was before feeds were serialized by PostFeed
+     */
+    private static PostResponse baselineResponse(Post post, Integer userVote) {
+        return PostResponse.builder()
+                .id(post.getId())
+                .title(post.getTitle())
+                .content(post.getContent())
+                .url(post.getUrl())
+                .thumbnailUrl(post.getThumbnailUrl())
+                .imageUrls(post.getImageUrls())
+                .postType(post.getPostType())
+                .authorId(post.getAuthorId())
+                .authorUsername(post.getAuthorUsername())
+                .subId(post.getSubId())
+                .subName(post.getSubName())
+                .flair(post.getFlair())
+                .flairColor(post.getFlairColor())
+                .voteCount(post.getVoteCount())
+                .commentCount(post.getCommentCount())
+                .createdAt(DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm")
+                        .withZone(ZoneId.systemDefault())
+                        .format(post.getCreatedAt()))
+                .timeAgo(baselineTimeAgo(post.getCreatedAt()))
+                .nsfw(post.isNsfw())
+                .spoiler(post.isSpoiler())
+                .locked(post.isLocked())
+                .pinned(post.isPinned())
+                .removed(post.isRemoved())
+                .removalReason(post.getRemovalReason())
+                .userVote(userVote)
+                .build();
+    }
+
+    private static String baselineTimeAgo(Instant instant) {
+        Duration duration = Duration.between(instant, Instant.now());
+
+        if (duration.toMinutes() < 1) {
+            return "just now";
+        } else if (duration.toMinutes() < 60) {
+            long mins = duration.toMinutes();
+            return mins + (mins == 1 ? " minute ago" : " minutes ago");
+        } else if (duration.toHours() < 24) {
+            long hours = duration.toHours();
+            return hours + (hours == 1 ? " hour ago" : " hours ago");
+        } else if (duration.toDays() < 30) {
+            long days = duration.toDays();
+            return days + (days == 1 ? " day ago" : " days ago");
+        } else if (duration.toDays() < 365) {
+            long months = duration.toDays() / 30;
+            return months + (months == 1 ? " month ago" : " months ago");
+        } else {
+            long years = duration.toDays() / 365;
+            return years + (years == 1 ? " year ago" : " years ago");
+        }
+    }
+
+    /**
+     * One page of list-projected posts (no content, first image only), as the feed queries return them
+     */
+    private static List<Post> page() {
+        Instant now = Instant.now();
+        List<Post> posts = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            posts.add(Post.builder()
+                    .id(String.format("65f0c0ffee%014x", i))
+                    .title("A reasonably long post title number " + i + " about something")
+                    .preview("The first couple of sentences of the post body, cut down to a short preview.")
+                    .imageUrls(i % 3 == 0 ? List.of("https://cdn.example.com/images/" + i + ".png") : List.of())
+                    .postType(i % 3 == 0 ? Post.PostType.IMAGE : Post.PostType.TEXT)
+                    .authorId("65f0aaaa00000000000000" + String.format("%02d", i))
+                    .authorUsername("author" + i)
+                    .subId("65f0bbbb0000000000000001")
+                    .subName("programming")
+                    .flair(i % 4 == 0 ? "Discussion" : null)
+                    .voteCount(i * 7)
+                    .commentCount(i * 3)
+                    .createdAt(now.minusSeconds(i * 3600L))
+                    .build());
+        }
+        return posts;
+    }
+}
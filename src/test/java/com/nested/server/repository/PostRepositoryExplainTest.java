@@ -0,0 +1,134 @@
+package com.nested.server.repository;
+
+import com.nested.server.model.FeedSort;
+import com.nested.server.model.Post;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.mongodb.test.autoconfigure.DataMongoTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.query.BasicQuery;
+import org.springframework.data.mongodb.repository.Query;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.mongodb.MongoDBContainer;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Sub feed id queries must be answered from the sub_*_id indexes alone: an index scan in sort
+ * order, no in-memory SORT and no FETCH of the documents.
+ */
+@DataMongoTest
+@Testcontainers(disabledWithoutDocker = true)
+class PostRepositoryExplainTest {
+
+    private static final String SUB_ID = "sub-explain";
+    private static final int PAGE_SIZE = 25;
+
+    @Container
+    @ServiceConnection
+    static MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.dropCollection(Post.class);
+        IndexOperations indexOps = mongoTemplate.indexOps(Post.class);
+        new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext())
+                .resolveIndexFor(Post.class)
+                .forEach(indexOps::createIndex);
+
+        // Enough posts over several subs that the planner has real alternatives to reject
+        Instant now = Instant.now();
+        List<Post> posts = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            posts.add(Post.builder()
+                    .title("post " + i)
+                    .subId(i % 4 == 0 ? SUB_ID : "sub-other-" + (i % 4))
+                    .createdAt(now.minusSeconds(i * 60L))
+                    .voteCount(i % 37)
+                    .ups(i % 37)
+                    .downs(i % 11)
+                    .hotScore(i % 53 / 10.0)
+                    .controversyScore(i % 29 / 7.0)
+                    .build());
+        }
+        mongoTemplate.insertAll(posts);
+    }
+
+    @ParameterizedTest
+    @EnumSource(FeedSort.class)
+    void findIdsBySubIdIsCoveredBySubIndex(FeedSort sort) throws Exception {
+        Document plan = explainFindIdsBySubId(sort);
+
+        List<Document> stages = new ArrayList<>();
+        collectStages(plan, stages);
+        List<String> names = stages.stream().map(stage -> stage.getString("stage")).toList();
+
+        assertThat(stages)
+                .filteredOn(stage -> "IXSCAN".equals(stage.getString("stage")))
+                .extracting(stage -> stage.getString("indexName"))
+                .containsExactly(expectedIndex(sort));
+        assertThat(names).doesNotContain("SORT", "FETCH");
+    }
+
+    /**
+     * Winning plan of the query findIdsBySubId issues: its @Query filter and projection with the
+     * feed sort and page size applied, as the repository does
+     */
+    private Document explainFindIdsBySubId(FeedSort sort) throws Exception {
+        Query annotation = PostRepository.class.getMethod("findIdsBySubId", String.class, Pageable.class)
+                .getAnnotation(Query.class);
+        BasicQuery query = new BasicQuery(annotation.value().replace("?0", "'" + SUB_ID + "'"), annotation.fields());
+        query.with(PageRequest.of(0, PAGE_SIZE, sort.toSort()));
+
+        Document explain = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Post.class))
+                .find(query.getQueryObject())
+                .projection(query.getFieldsObject())
+                .sort(query.getSortObject())
+                .limit(PAGE_SIZE)
+                .explain();
+        Document winningPlan = explain.get("queryPlanner", Document.class).get("winningPlan", Document.class);
+        // The slot based engine nests the classic plan tree under queryPlan
+        return winningPlan.containsKey("queryPlan") ? winningPlan.get("queryPlan", Document.class) : winningPlan;
+    }
+
+    private static void collectStages(Object node, List<Document> stages) {
+        if (node instanceof Document document) {
+            if (document.containsKey("stage")) {
+                stages.add(document);
+            }
+            for (Map.Entry<String, Object> entry : document.entrySet()) {
+                collectStages(entry.getValue(), stages);
+            }
+        } else if (node instanceof List<?> list) {
+            for (Object item : list) {
+                collectStages(item, stages);
+            }
+        }
+    }
+
+    private static String expectedIndex(FeedSort sort) {
+        return switch (sort) {
+            case HOT -> "sub_hot_id";
+            case NEW -> "sub_created_id";
+            case TOP -> "sub_votes_id";
+            case CONTROVERSIAL -> "sub_controversy_id";
+        };
+    }
+}